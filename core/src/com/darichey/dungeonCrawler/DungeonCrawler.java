@@ -4,8 +4,33 @@ import com.badlogic.gdx.Game;
 import com.darichey.dungeonCrawler.screens.GameScreen;
 
 public class DungeonCrawler extends Game {
+	/**
+	 * If the world is updated on its own thread rather than the render thread
+	 */
+	private boolean threadedSimulation;
+
+	/**
+	 * If dynamic entities are simulated with Box2D rather than the built-in physics
+	 */
+	private boolean box2dPhysics;
+
+	public DungeonCrawler() {
+		this(false, false);
+	}
+
+	public DungeonCrawler(boolean threadedSimulation, boolean box2dPhysics) {
+		this.threadedSimulation = threadedSimulation;
+		this.box2dPhysics = box2dPhysics;
+	}
+
 	@Override
 	public void create() {
-		setScreen(new GameScreen());
+		setScreen(new GameScreen(threadedSimulation, box2dPhysics));
+	}
+
+	@Override
+	public void dispose() {
+		super.dispose();
+		getScreen().dispose();
 	}
 }
@@ -4,54 +4,150 @@ import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 
 /**
- * The base for dynamic entities. Dynamic entities are entities that can change position
+ * The base for dynamic entities. Dynamic entities are entities that can change position. Their position, velocity and
+ * other state is kept in an {@link EntityStore}, and this class reads and writes its entry there.
  */
 public abstract class DynamicEntity extends GameEntity {
 	/**
-	 * Current position of the entity *
+	 * The store holding this entity's state, and the entity's index in it. Set by the store.
 	 */
-	private Vector2 pos = new Vector2();
-
-	private Vector2 velocity = new Vector2();
+	EntityStore store;
+	int handle;
 
 	public float movementSpeed;
 
-	public float dampingSpeed;
+	public DynamicEntity() {
+		store = new EntityStore(1);
+		handle = store.allocate(this);
+	}
+
+	public EntityStore getStore() {
+		return this.store;
+	}
+
+	/**
+	 * @return Index of this entity in {@link #getStore()}. Changes when other entities are removed from the store.
+	 */
+	public int getHandle() {
+		return this.handle;
+	}
+
+	public float getX() {
+		return store.x[handle];
+	}
+
+	public float getY() {
+		return store.y[handle];
+	}
+
+	/**
+	 * Sets the passed vector to the position of this entity
+	 *
+	 * @param out The vector to set
+	 * @return The passed vector
+	 */
+	public Vector2 getPos(Vector2 out) {
+		return out.set(store.x[handle], store.y[handle]);
+	}
 
-	public Vector2 getPos() {
-		return pos;
+	/**
+	 * Moves the entity to the passed position without interpolating from its previous position
+	 */
+	public void setPos(float x, float y) {
+		store.x[handle] = store.prevX[handle] = x;
+		store.y[handle] = store.prevY[handle] = y;
 	}
 
 	public void setPos(Vector2 pos) {
-		this.pos = pos;
+		setPos(pos.x, pos.y);
 	}
 
+	/**
+	 * Moves the entity along the X axis, interpolating from its previous position
+	 */
 	public void setPosX(float posX) {
-		setPos(new Vector2(posX, getPos().y));
+		store.x[handle] = posX;
 	}
 
+	/**
+	 * Moves the entity along the Y axis, interpolating from its previous position
+	 */
 	public void setPosY(float posY) {
-		setPos(new Vector2(getPos().x, posY));
+		store.y[handle] = posY;
+	}
+
+	/**
+	 * @return X position of the entity at the start of the current tick
+	 */
+	public float getPrevX() {
+		return store.prevX[handle];
+	}
+
+	/**
+	 * @return Y position of the entity at the start of the current tick
+	 */
+	public float getPrevY() {
+		return store.prevY[handle];
+	}
+
+	/**
+	 * @return Width of the entity, as kept in its store
+	 */
+	public float getWidth() {
+		return store.width[handle];
+	}
+
+	/**
+	 * @return Height of the entity, as kept in its store
+	 */
+	public float getHeight() {
+		return store.height[handle];
+	}
+
+	/**
+	 * Resizes the entity. Collision and rendering read the size from the store, so dynamic entities should be resized
+	 * through this rather than by setting {@link #width} and {@link #height}.
+	 */
+	public void setSize(int width, int height) {
+		this.width = width;
+		this.height = height;
+		store.width[handle] = width;
+		store.height[handle] = height;
 	}
 
 	public Rectangle getBounds() {
-		return new Rectangle(getPos().x, getPos().y, width, height);
+		return getBounds(new Rectangle());
+	}
+
+	/**
+	 * Sets the passed rectangle to the bounds of this entity
+	 *
+	 * @param out The rectangle to set
+	 * @return The passed rectangle
+	 */
+	public Rectangle getBounds(Rectangle out) {
+		return out.set(store.x[handle], store.y[handle], store.width[handle], store.height[handle]);
+	}
+
+	public float getVelocityX() {
+		return store.velocityX[handle];
 	}
 
-	public Vector2 getVelocity() {
-		return this.velocity;
+	public float getVelocityY() {
+		return store.velocityY[handle];
 	}
 
-	public void setVelocity(Vector2 velocity) {
-		this.velocity = velocity;
+	public void setVelocity(float velocityX, float velocityY) {
+		store.velocityX[handle] = velocityX;
+		store.velocityY[handle] = velocityY;
 	}
 
 	public void setVelocityX(float velocityX) {
-		setVelocity(new Vector2(velocityX, getVelocity().y));
+		store.velocityX[handle] = velocityX;
 	}
 
 	public void setVelocityY(float velocityY) {
-		setVelocity(new Vector2(getVelocity().x, velocityY));
+		store.velocityY[handle] = velocityY;
 	}
 
 	public float getMovementSpeed() {
@@ -63,10 +159,10 @@ public abstract class DynamicEntity extends GameEntity {
 	}
 
 	public float getDampingSpeed() {
-		return this.dampingSpeed;
+		return store.damping[handle];
 	}
 
 	public void setDampingSpeed(float speed) {
-		this.dampingSpeed = speed;
+		store.damping[handle] = speed;
 	}
 }
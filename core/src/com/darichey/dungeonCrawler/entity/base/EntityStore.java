@@ -0,0 +1,130 @@
+package com.darichey.dungeonCrawler.entity.base;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the state of dynamic entities in parallel arrays, so loops over every entity read contiguous memory rather than
+ * following a pointer per entity. An entity's index in the arrays is its handle, and the first {@link #size} indices
+ * are used. {@link DynamicEntity} reads and writes its own index.
+ * <p>
+ * Every entity starts in a store of its own, and is moved into its world's store by {@link #add(DynamicEntity)}.
+ * Removing an entity moves the last entity into its place, so handles change and must not be kept.
+ */
+public class EntityStore {
+	public int size;
+	public DynamicEntity[] entities;
+	public float[] x, y;
+	/** Position at the start of the current tick, used to interpolate between ticks when rendering **/
+	public float[] prevX, prevY;
+	public float[] velocityX, velocityY;
+	/** Copied from the entity's width and height when it is added **/
+	public float[] width, height;
+	public float[] damping;
+	public int[] health;
+
+	public EntityStore(int capacity) {
+		entities = new DynamicEntity[capacity];
+		x = new float[capacity];
+		y = new float[capacity];
+		prevX = new float[capacity];
+		prevY = new float[capacity];
+		velocityX = new float[capacity];
+		velocityY = new float[capacity];
+		width = new float[capacity];
+		height = new float[capacity];
+		damping = new float[capacity];
+		health = new int[capacity];
+	}
+
+	/**
+	 * Moves the passed entity and its state into this store
+	 *
+	 * @param entity The entity to add
+	 */
+	public void add(DynamicEntity entity) {
+		if (entity.store == this) return;
+		int handle = allocate(entity);
+		EntityStore from = entity.store;
+		int fromHandle = entity.handle;
+		x[handle] = from.x[fromHandle];
+		y[handle] = from.y[fromHandle];
+		prevX[handle] = from.prevX[fromHandle];
+		prevY[handle] = from.prevY[fromHandle];
+		velocityX[handle] = from.velocityX[fromHandle];
+		velocityY[handle] = from.velocityY[fromHandle];
+		width[handle] = from.width[fromHandle];
+		height[handle] = from.height[fromHandle];
+		damping[handle] = from.damping[fromHandle];
+		health[handle] = from.health[fromHandle];
+		from.release(fromHandle);
+		entity.store = this;
+		entity.handle = handle;
+	}
+
+	/**
+	 * Moves the passed entity out of this store, into a store of its own
+	 *
+	 * @param entity The entity to remove
+	 */
+	public void remove(DynamicEntity entity) {
+		if (entity.store != this) return;
+		new EntityStore(1).add(entity);
+	}
+
+	/**
+	 * @param entity The entity to look for
+	 * @return Whether the passed entity's state is held by this store
+	 */
+	public boolean contains(DynamicEntity entity) {
+		return entity.store == this;
+	}
+
+	/**
+	 * Reserves an index for the passed entity, growing the arrays if they are full
+	 *
+	 * @return The index
+	 */
+	int allocate(DynamicEntity entity) {
+		if (size == entities.length) {
+			grow(Math.max(8, size * 2));
+		}
+		entities[size] = entity;
+		return size++;
+	}
+
+	/**
+	 * Frees the passed index by moving the last entity into it
+	 */
+	private void release(int handle) {
+		int last = --size;
+		if (handle != last) {
+			entities[handle] = entities[last];
+			entities[handle].handle = handle;
+			x[handle] = x[last];
+			y[handle] = y[last];
+			prevX[handle] = prevX[last];
+			prevY[handle] = prevY[last];
+			velocityX[handle] = velocityX[last];
+			velocityY[handle] = velocityY[last];
+			width[handle] = width[last];
+			height[handle] = height[last];
+			damping[handle] = damping[last];
+			health[handle] = health[last];
+		}
+		entities[last] = null;
+	}
+
+	private void grow(int capacity) {
+		entities = Arrays.copyOf(entities, capacity);
+		x = Arrays.copyOf(x, capacity);
+		y = Arrays.copyOf(y, capacity);
+		prevX = Arrays.copyOf(prevX, capacity);
+		prevY = Arrays.copyOf(prevY, capacity);
+		velocityX = Arrays.copyOf(velocityX, capacity);
+		velocityY = Arrays.copyOf(velocityY, capacity);
+		width = Arrays.copyOf(width, capacity);
+		height = Arrays.copyOf(height, capacity);
+		damping = Arrays.copyOf(damping, capacity);
+		health = Arrays.copyOf(health, capacity);
+	}
+}
@@ -20,15 +20,14 @@ public class EntityPlayer extends LivingEntity {
 
 	public EntityPlayer(World world, Vector2 pos) {
 		setPos(pos);
-		this.width = 1;
-		this.height = 2;
+		setSize(1, 2);
 		this.world = world;
 		this.texture = TextureLibrary.player;
-		this.health = 100;
+		setHealth(100);
 		this.movementSpeed = 6F;
-		this.dampingSpeed = .08F;
+		setDampingSpeed(.08F);
 		this.name = Names.player;
-		world.getDynamicEntities().add(this);
+		world.addDynamicEntity(this);
 	}
 
 	public InventoryPlayer getInventory() {
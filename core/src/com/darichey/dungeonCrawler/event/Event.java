@@ -1,6 +1,8 @@
 package com.darichey.dungeonCrawler.event;
 
-public abstract class Event {
+import com.badlogic.gdx.utils.Pool;
+
+public abstract class Event implements Pool.Poolable {
 	private String name;
 	private boolean isCanceled;
 
@@ -19,4 +21,12 @@ public abstract class Event {
 	public boolean isCancelable() {
 		return false;
 	}
+
+	/**
+	 * Called when a pooled event is freed so it can be reused. Subclasses should clear their own state.
+	 */
+	@Override
+	public void reset() {
+		this.isCanceled = false;
+	}
 }
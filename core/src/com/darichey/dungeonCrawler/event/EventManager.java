@@ -1,40 +1,195 @@
 package com.darichey.dungeonCrawler.event;
 
+import com.badlogic.gdx.utils.ObjectSet;
+import com.badlogic.gdx.utils.Pools;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 
 public final class EventManager {
 	static ArrayList<Listener> listeners = new ArrayList<Listener>();
 
+	/**
+	 * Every subscribed method of the registered listeners, highest priority first
+	 */
+	private static ArrayList<Subscriber> subscribers = new ArrayList<Subscriber>();
+
+	/**
+	 * The subscribers to call for each posted event class. Built the first time an event class is posted and
+	 * cleared whenever a listener is registered or unregistered.
+	 */
+	private static HashMap<Class<?>, Subscriber[]> dispatchTable = new HashMap<Class<?>, Subscriber[]>();
+
+	/**
+	 * Ring buffer of events waiting for the next {@link #drain()}, oldest at queueHead. The length is always a power of two.
+	 */
+	private static Event[] queue = new Event[64];
+	private static int queueHead, queueSize;
+
+	/**
+	 * The events currently in the queue, used to drop duplicates
+	 */
+	private static ObjectSet<Event> queued = new ObjectSet<Event>();
+
+	private static final MethodType handlerType = MethodType.methodType(void.class, Event.class);
+
 	public static void register(Listener listener) {
 		if (!listeners.contains(listener)) {
 			listeners.add(listener);
+			for (Method method : listener.getClass().getMethods()) {
+				Subscribe subscribe = method.getAnnotation(Subscribe.class);
+				if (subscribe != null) {
+					subscribers.add(new Subscriber(listener, method, subscribe));
+				}
+			}
+			// Stable, so subscribers of the same priority keep their registration order
+			Collections.sort(subscribers, new Comparator<Subscriber>() {
+				@Override
+				public int compare(Subscriber first, Subscriber second) {
+					return second.priority.compareTo(first.priority);
+				}
+			});
+			dispatchTable.clear();
 		}
 	}
 
 	public static void unregister(Listener listener) {
 		if (listeners.contains(listener)) {
 			listeners.remove(listener);
+			for (int i = subscribers.size() - 1; i >= 0; i--) {
+				if (subscribers.get(i).listener == listener) {
+					subscribers.remove(i);
+				}
+			}
+			dispatchTable.clear();
 		}
 	}
 
 	/**
+	 * Invokes the subscribers of the event in order of priority. Once the event is canceled, only subscribers that
+	 * receive canceled events are invoked.
+	 *
 	 * @param event The event to post
 	 * @return If the event was canceled
 	 */
 	public static boolean post(Event event) {
-		for (Listener listener : listeners) {
-			Method[] methods = listener.getClass().getMethods();
-			for (Method method : methods) {
-				if (method.isAnnotationPresent(Subscribe.class)) {
-					try {
-						method.invoke(listener.getClass().newInstance(), event);
-					} catch (Exception e) {
-						e.printStackTrace();
-					}
-				}
+		Subscriber[] handlers = dispatchTable.get(event.getClass());
+		if (handlers == null) {
+			handlers = getSubscribersFor(event.getClass());
+			dispatchTable.put(event.getClass(), handlers);
+		}
+		for (Subscriber handler : handlers) {
+			if (event.isCanceled() && !handler.receiveCanceled) continue;
+			try {
+				handler.handle.invokeExact(event);
+			} catch (Throwable e) {
+				e.printStackTrace();
 			}
 		}
 		return event.isCancelable() && event.isCanceled();
 	}
+
+	/**
+	 * Obtains a pooled event to be passed to {@link #queue(Event)}. The event has to be set up by the caller.
+	 *
+	 * @param type The class of the event
+	 * @return A reset event of the passed class
+	 */
+	public static <T extends Event> T obtain(Class<T> type) {
+		return Pools.obtain(type);
+	}
+
+	/**
+	 * Queues a pooled event to be posted on the next {@link #drain()}, then freed. An event equal to one already in
+	 * the queue is freed without being queued. Cancelable events are posted immediately instead, because the caller
+	 * needs to know if they were canceled.
+	 *
+	 * @param event The event to queue, obtained from {@link #obtain(Class)}
+	 * @return If the event was canceled
+	 */
+	public static boolean queue(Event event) {
+		if (event.isCancelable()) {
+			boolean canceled = post(event);
+			Pools.free(event);
+			return canceled;
+		}
+		if (!queued.add(event)) {
+			Pools.free(event);
+			return false;
+		}
+		if (queueSize == queue.length) {
+			Event[] grown = new Event[queue.length * 2];
+			for (int i = 0; i < queueSize; i++) {
+				grown[i] = queue[(queueHead + i) & (queue.length - 1)];
+			}
+			queue = grown;
+			queueHead = 0;
+		}
+		queue[(queueHead + queueSize) & (queue.length - 1)] = event;
+		queueSize++;
+		return false;
+	}
+
+	/**
+	 * Posts and frees every queued event in the order they were queued, including events queued while draining.
+	 */
+	public static void drain() {
+		while (queueSize > 0) {
+			Event event = queue[queueHead];
+			queue[queueHead] = null;
+			queueHead = (queueHead + 1) & (queue.length - 1);
+			queueSize--;
+			queued.remove(event);
+			post(event);
+			Pools.free(event);
+		}
+	}
+
+	/**
+	 * @return The subscribers accepting the passed event class or one of its superclasses, in priority order
+	 */
+	private static Subscriber[] getSubscribersFor(Class<?> eventClass) {
+		ArrayList<Subscriber> handlers = new ArrayList<Subscriber>();
+		for (Subscriber subscriber : subscribers) {
+			if (subscriber.eventType.isAssignableFrom(eventClass)) {
+				handlers.add(subscriber);
+			}
+		}
+		return handlers.toArray(new Subscriber[handlers.size()]);
+	}
+
+	/**
+	 * A subscribed method bound to the listener instance it was registered with
+	 */
+	private static class Subscriber {
+		final Listener listener;
+		final Class<?> eventType;
+		final Priority priority;
+		final boolean receiveCanceled;
+		final MethodHandle handle;
+
+		Subscriber(Listener listener, Method method, Subscribe subscribe) {
+			Class<?>[] parameters = method.getParameterTypes();
+			if (parameters.length != 1 || !Event.class.isAssignableFrom(parameters[0])) {
+				throw new IllegalArgumentException("Subscribed method must take a single Event: " + method);
+			}
+			this.listener = listener;
+			this.eventType = parameters[0];
+			this.priority = subscribe.priority();
+			this.receiveCanceled = subscribe.receiveCanceled();
+			try {
+				// Listener classes are not always public
+				method.setAccessible(true);
+				this.handle = MethodHandles.lookup().unreflect(method).bindTo(listener).asType(handlerType);
+			} catch (IllegalAccessException e) {
+				throw new IllegalArgumentException("Subscribed method is not accessible: " + method, e);
+			}
+		}
+	}
 }
@@ -1,7 +1,7 @@
 package com.darichey.dungeonCrawler.event;
 
 /**
- * Priority of subscribed event listeners. Events will be processed in order of priority.
+ * Priority of subscribed event listeners. Events will be processed in order of priority, highest first.
  */
 public enum Priority {
 	LOW,
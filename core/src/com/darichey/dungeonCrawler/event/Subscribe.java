@@ -12,4 +12,9 @@ import java.lang.annotation.Target;
 @Retention(RetentionPolicy.RUNTIME)
 public @interface Subscribe {
 	Priority priority() default Priority.NORMAL;
+
+	/**
+	 * If the method should still be invoked for events canceled by a higher priority listener
+	 */
+	boolean receiveCanceled() default false;
 }
@@ -9,6 +9,9 @@ import com.darichey.dungeonCrawler.world.World;
 public class WorldEvent extends Event {
 	protected World world;
 
+	protected WorldEvent() {
+	}
+
 	public WorldEvent(World world) {
 		this.world = world;
 	}
@@ -16,4 +19,10 @@ public class WorldEvent extends Event {
 	public final World getWorld() {
 		return this.world;
 	}
+
+	@Override
+	public void reset() {
+		super.reset();
+		this.world = null;
+	}
 }
@@ -9,6 +9,9 @@ import com.darichey.dungeonCrawler.event.world.WorldEvent;
 public class EntityEvent extends WorldEvent {
 	protected GameEntity entity;
 
+	protected EntityEvent() {
+	}
+
 	public EntityEvent(GameEntity entity) {
 		super(entity.getWorld());
 		this.entity = entity;
@@ -17,4 +20,10 @@ public class EntityEvent extends WorldEvent {
 	public final GameEntity getEntity() {
 		return this.entity;
 	}
+
+	@Override
+	public void reset() {
+		super.reset();
+		this.entity = null;
+	}
 }
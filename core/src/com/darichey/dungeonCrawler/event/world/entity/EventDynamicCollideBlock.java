@@ -7,14 +7,48 @@ import com.darichey.dungeonCrawler.entity.base.DynamicEntity;
  * Event fired when a dynamic entity collides with a block
  */
 public class EventDynamicCollideBlock extends EntityEvent {
-	private Vector2 blockPos;
+	private Vector2 blockPos = new Vector2();
+
+	/**
+	 * Used when obtaining the event from a pool. Call {@link #set(DynamicEntity, float, float)} before posting.
+	 */
+	public EventDynamicCollideBlock() {
+	}
 
 	public EventDynamicCollideBlock(DynamicEntity dynamic, Vector2 blockPos) {
 		super(dynamic);
-		this.blockPos = blockPos;
+		this.blockPos.set(blockPos);
+	}
+
+	public EventDynamicCollideBlock set(DynamicEntity dynamic, float blockX, float blockY) {
+		this.entity = dynamic;
+		this.world = dynamic.getWorld();
+		this.blockPos.set(blockX, blockY);
+		return this;
 	}
 
 	public Vector2 getBlockPos() {
 		return this.blockPos;
 	}
+
+	@Override
+	public void reset() {
+		super.reset();
+		this.blockPos.setZero();
+	}
+
+	/**
+	 * Collisions of the same entity with the same block are equal, so they are only queued once per tick
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (!(obj instanceof EventDynamicCollideBlock)) return false;
+		EventDynamicCollideBlock other = (EventDynamicCollideBlock) obj;
+		return other.entity == this.entity && other.blockPos.equals(this.blockPos);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * System.identityHashCode(entity) + blockPos.hashCode();
+	}
 }
@@ -8,12 +8,48 @@ import com.darichey.dungeonCrawler.entity.base.DynamicEntity;
 public class EventDynamicCollideDynamic extends EntityEvent {
 	private DynamicEntity collided;
 
+	/**
+	 * Used when obtaining the event from a pool. Call {@link #set(DynamicEntity, DynamicEntity)} before posting.
+	 */
+	public EventDynamicCollideDynamic() {
+	}
+
 	public EventDynamicCollideDynamic(DynamicEntity collider, DynamicEntity collided) {
 		super(collider);
 		this.collided = collided;
 	}
 
+	public EventDynamicCollideDynamic set(DynamicEntity collider, DynamicEntity collided) {
+		this.entity = collider;
+		this.world = collider.getWorld();
+		this.collided = collided;
+		return this;
+	}
+
 	public DynamicEntity getCollided() {
 		return this.collided;
 	}
+
+	@Override
+	public void reset() {
+		super.reset();
+		this.collided = null;
+	}
+
+	/**
+	 * Collisions between the same two entities are equal regardless of which one is the collider, so a pair is only
+	 * queued once per tick
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (!(obj instanceof EventDynamicCollideDynamic)) return false;
+		EventDynamicCollideDynamic other = (EventDynamicCollideDynamic) obj;
+		return (other.entity == this.entity && other.collided == this.collided)
+				|| (other.entity == this.collided && other.collided == this.entity);
+	}
+
+	@Override
+	public int hashCode() {
+		return System.identityHashCode(entity) ^ System.identityHashCode(collided);
+	}
 }
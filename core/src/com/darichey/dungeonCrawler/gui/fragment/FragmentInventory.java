@@ -25,6 +25,9 @@ public class FragmentInventory extends Fragment {
 
 	@Override
 	public void update() {
-		this.inventory.updateSlots();
+		// The world may change the inventory from the simulation thread
+		synchronized (inventory) {
+			this.inventory.updateSlots();
+		}
 	}
 }
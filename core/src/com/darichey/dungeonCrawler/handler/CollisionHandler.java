@@ -1,10 +1,16 @@
 package com.darichey.dungeonCrawler.handler;
 
 import com.badlogic.gdx.math.Rectangle;
-import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
 import com.darichey.dungeonCrawler.entity.base.DynamicEntity;
-import com.darichey.dungeonCrawler.entity.block.BlockBase;
+import com.darichey.dungeonCrawler.entity.base.EntityStore;
+import com.darichey.dungeonCrawler.event.EventManager;
+import com.darichey.dungeonCrawler.event.world.entity.EventDynamicCollideBlock;
+import com.darichey.dungeonCrawler.event.world.entity.EventDynamicCollideDynamic;
+import com.darichey.dungeonCrawler.world.SpatialHash;
 import com.darichey.dungeonCrawler.world.World;
+import com.darichey.dungeonCrawler.world.chunk.Chunk;
 
 /**
  * Posts collision events to the event manager
@@ -12,59 +18,193 @@ import com.darichey.dungeonCrawler.world.World;
 public class CollisionHandler extends HandlerBase {
 	private World world;
 
+	/** Reused to avoid allocating rectangles in the collision loops **/
+	private Rectangle dynamicBounds = new Rectangle();
+	private Rectangle otherBounds = new Rectangle();
+
+	/** Keeps boxes that exactly touch a tile from counting as overlapping it **/
+	private static final float EPSILON = 1e-4f;
+
+	/** Finds the dynamic entities that may be colliding with each other **/
+	private SpatialHash spatialHash = new SpatialHash();
+	/** Candidate pairs from the spatial hash, stored as consecutive elements **/
+	private Array<DynamicEntity> pairs = new Array<DynamicEntity>();
+
 	public CollisionHandler(World world) {
 		this.world = world;
 	}
 
 	@Override
 	public void update(float deltaTime) {
-		for (DynamicEntity firstEntity : world.getDynamicEntities()) {
-			for (DynamicEntity secondEntity : world.getDynamicEntities()) {
-				if (firstEntity != secondEntity) {
-					Rectangle firstBounds = firstEntity.getBounds();
-					Rectangle secondBounds = secondEntity.getBounds();
-					if (firstBounds.overlaps(secondBounds)) {
-						// FIXME: So broken D:
-						//EventManager.post(new EventDynamicCollideDynamic(firstEntity, secondEntity));
-					}
-				}
+		EntityStore store = world.getEntityStore();
+		for (int i = 0; i < store.size; i++) {
+			// Sweep from where the entity started the tick to where movement took it, one axis at a time
+			float startX = store.prevX[i];
+			float startY = store.prevY[i];
+			float endX = store.x[i];
+			float endY = store.y[i];
+			DynamicEntity dynamic = store.entities[i];
+
+			float moveX = endX - startX;
+			float x = sweepX(dynamic, startX, startY, moveX, store.width[i], store.height[i]);
+			if (x != startX + moveX) {
+				store.x[i] = x;
+				store.velocityX[i] = 0;
+			}
+			float moveY = endY - startY;
+			float y = sweepY(dynamic, store.x[i], startY, moveY, store.width[i], store.height[i]);
+			if (y != startY + moveY) {
+				store.y[i] = y;
+				store.velocityY[i] = 0;
 			}
 		}
 
-		for (DynamicEntity dynamic : world.getDynamicEntities()) {
-			for (Vector2 blockPos : world.getBlockPositions()) {
-				BlockBase block = (BlockBase) world.getEntityAt(blockPos);
-				Rectangle dynamicBounds = dynamic.getBounds();
-				Rectangle blockBounds = new Rectangle(blockPos.x, blockPos.y, block.width, block.height);
+		// Entities removed from the world since the last tick would otherwise keep colliding
+		spatialHash.retain(store);
+		for (int i = 0; i < store.size; i++) {
+			spatialHash.update(store.entities[i]);
+		}
 
-				if (dynamicBounds.overlaps(blockBounds)) {
-					// FIXME: So broken D:
-					//EventManager.post(new EventDynamicCollideBlock(dynamic, blockPos));
+		spatialHash.getCandidatePairs(pairs);
+		for (int i = 0; i < pairs.size; i += 2) {
+			DynamicEntity firstEntity = pairs.get(i);
+			DynamicEntity secondEntity = pairs.get(i + 1);
+			if (firstEntity.getBounds(dynamicBounds).overlaps(secondEntity.getBounds(otherBounds))) {
+				EventManager.queue(EventManager.obtain(EventDynamicCollideDynamic.class).set(firstEntity, secondEntity));
+			}
+		}
+		pairs.clear();
+	}
 
-					float overlapX = getOverlap1D(dynamicBounds.x, dynamicBounds.x + dynamicBounds.width, blockBounds.x, blockBounds.x + blockBounds.width);
-					float overlapY = getOverlap1D(dynamicBounds.y, dynamicBounds.y + dynamicBounds.height, blockBounds.y, blockBounds.y + blockBounds.height);
+	/**
+	 * Moves a box along the X axis until it reaches the collision shape of a chunk.
+	 * Columns of a shape the box already overlaps are ignored, so an entity inside a block can move out of it
+	 * without passing through the blocks next to it.
+	 *
+	 * @return The X position the box can move to
+	 */
+	private float sweepX(DynamicEntity dynamic, float x, float y, float distance, float width, float height) {
+		if (distance == 0) return x;
+		float bottom = y + EPSILON;
+		float top = y + height - EPSILON;
+		float stop = x + distance;
+		// Tile edges past which the box does not overlap any column
+		int aheadX = (int) Math.ceil(x + width - EPSILON);
+		int behindX = (int) Math.floor(x + EPSILON);
+		int contact = 0;
+		boolean blocked = false;
+		int minChunkX = (int) Math.floor(Math.min(x, stop)) >> Chunk.lengthBits;
+		int maxChunkX = (int) Math.floor(Math.max(x, stop) + width) >> Chunk.lengthBits;
+		int minChunkY = (int) Math.floor(bottom) >> Chunk.lengthBits;
+		int maxChunkY = (int) Math.floor(top) >> Chunk.lengthBits;
+		for (int chunkY = minChunkY; chunkY <= maxChunkY; chunkY++) {
+			for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+				Chunk chunk = world.getChunk(chunkX, chunkY);
+				if (chunk == null) continue;
+				IntArray shapes = chunk.getCollisionShapes();
+				for (int i = 0; i < shapes.size; i += 4) {
+					int shapeY = chunk.getWorldY(shapes.items[i + 1]);
+					if (shapeY >= top || shapeY + shapes.items[i + 3] <= bottom) continue;
+					int shapeX = chunk.getWorldX(shapes.items[i]);
+					// Only the columns the box already overlaps are ignored, the rest of the shape still blocks it
+					if (distance > 0) {
+						int left = Math.max(shapeX, aheadX);
+						if (left < shapeX + shapes.items[i + 2] && left - width < stop) {
+							stop = left - width;
+							contact = left;
+							blocked = true;
+						}
+					} else {
+						int right = Math.min(shapeX + shapes.items[i + 2], behindX);
+						if (right > shapeX && right > stop) {
+							stop = right;
+							contact = right - 1;
+							blocked = true;
+						}
+					}
+				}
+			}
+		}
+		if (blocked) {
+			queueColumnCollisions(dynamic, contact, (int) Math.floor(bottom), (int) Math.floor(top));
+		}
+		return stop;
+	}
 
-					if (overlapX < overlapY) {
-						if (dynamic.getVelocity().x < 0) {
-							dynamic.getPos().add(overlapX, 0);
-						} else {
-							dynamic.getPos().sub(overlapX, 0);
+	/**
+	 * Moves a box along the Y axis until it reaches the collision shape of a chunk.
+	 * Rows of a shape the box already overlaps are ignored, so an entity inside a block can move out of it
+	 * without passing through the blocks next to it.
+	 *
+	 * @return The Y position the box can move to
+	 */
+	private float sweepY(DynamicEntity dynamic, float x, float y, float distance, float width, float height) {
+		if (distance == 0) return y;
+		float left = x + EPSILON;
+		float right = x + width - EPSILON;
+		float stop = y + distance;
+		// Tile edges past which the box does not overlap any row
+		int aheadY = (int) Math.ceil(y + height - EPSILON);
+		int behindY = (int) Math.floor(y + EPSILON);
+		int contact = 0;
+		boolean blocked = false;
+		int minChunkX = (int) Math.floor(left) >> Chunk.lengthBits;
+		int maxChunkX = (int) Math.floor(right) >> Chunk.lengthBits;
+		int minChunkY = (int) Math.floor(Math.min(y, stop)) >> Chunk.lengthBits;
+		int maxChunkY = (int) Math.floor(Math.max(y, stop) + height) >> Chunk.lengthBits;
+		for (int chunkY = minChunkY; chunkY <= maxChunkY; chunkY++) {
+			for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+				Chunk chunk = world.getChunk(chunkX, chunkY);
+				if (chunk == null) continue;
+				IntArray shapes = chunk.getCollisionShapes();
+				for (int i = 0; i < shapes.size; i += 4) {
+					int shapeX = chunk.getWorldX(shapes.items[i]);
+					if (shapeX >= right || shapeX + shapes.items[i + 2] <= left) continue;
+					int shapeY = chunk.getWorldY(shapes.items[i + 1]);
+					// Only the rows the box already overlaps are ignored, the rest of the shape still blocks it
+					if (distance > 0) {
+						int bottom = Math.max(shapeY, aheadY);
+						if (bottom < shapeY + shapes.items[i + 3] && bottom - height < stop) {
+							stop = bottom - height;
+							contact = bottom;
+							blocked = true;
 						}
-						dynamic.setVelocityX(0);
 					} else {
-						if (dynamic.getVelocity().y < 0) {
-							dynamic.getPos().add(0, overlapY);
-						} else {
-							dynamic.getPos().sub(0, overlapY);
+						int top = Math.min(shapeY + shapes.items[i + 3], behindY);
+						if (top > shapeY && top > stop) {
+							stop = top;
+							contact = top - 1;
+							blocked = true;
 						}
-						dynamic.setVelocityY(0);
 					}
 				}
 			}
 		}
+		if (blocked) {
+			queueRowCollisions(dynamic, contact, (int) Math.floor(left), (int) Math.floor(right));
+		}
+		return stop;
 	}
 
-	private float getOverlap1D(float min1, float max1, float min2, float max2) {
-		return Math.max(0, Math.min(max1, max2) - Math.max(min1, min2));
+	/**
+	 * Queues a collision event for every block in the column between the passed rows
+	 */
+	private void queueColumnCollisions(DynamicEntity dynamic, int column, int minY, int maxY) {
+		for (int y = minY; y <= maxY; y++) {
+			if (world.isSolidAt(column, y)) {
+				EventManager.queue(EventManager.obtain(EventDynamicCollideBlock.class).set(dynamic, column, y));
+			}
+		}
+	}
+
+	/**
+	 * Queues a collision event for every block in the row between the passed columns
+	 */
+	private void queueRowCollisions(DynamicEntity dynamic, int row, int minX, int maxX) {
+		for (int x = minX; x <= maxX; x++) {
+			if (world.isSolidAt(x, row)) {
+				EventManager.queue(EventManager.obtain(EventDynamicCollideBlock.class).set(dynamic, x, row));
+			}
+		}
 	}
 }
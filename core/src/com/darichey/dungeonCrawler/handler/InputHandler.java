@@ -4,7 +4,6 @@ import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Input;
 import com.badlogic.gdx.InputProcessor;
 import com.badlogic.gdx.graphics.OrthographicCamera;
-import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.math.Vector3;
 import com.darichey.dungeonCrawler.entity.base.GameEntity;
 import com.darichey.dungeonCrawler.entity.block.BlockBase;
@@ -22,6 +21,13 @@ public class InputHandler implements InputProcessor {
 	private OrthographicCamera camera;
 	private EntityPlayer player;
 
+	/** Reused when unprojecting touches **/
+	private Vector3 touchPos = new Vector3();
+
+	/** Movement keys held at the last {@link #pollInput()}, read by the thread updating the world **/
+	private volatile int movementKeys;
+	private static final int RIGHT = 1, LEFT = 2, UP = 4, DOWN = 8;
+
 	public InputHandler(World world, OrthographicCamera camera) {
 		this.world = world;
 		this.camera = camera;
@@ -30,72 +36,115 @@ public class InputHandler implements InputProcessor {
 
 	@Override
 	public boolean touchDown(int screenX, int screenY, int pointer, int button) {
-		Vector3 touchPos = new Vector3(screenX, screenY, 0);
-		Vector3 unroundedWorldPos = camera.unproject(touchPos);
-		Vector2 worldPos = new Vector2((float) Math.floor(unroundedWorldPos.x), (float) Math.floor(unroundedWorldPos.y));
-		GameEntity entity = world.getEntityAt(worldPos);
-		if (button == 0) {
-			// Break block
-			if (entity != null && entity instanceof BlockBase) {
-				ItemStack stack = new ItemStack(entity.getPlaceable(), 1);
-				Slot slot = player.getInventory().getNextValidSlotFor(stack);
-				slot.addStack(stack);
-				world.setEntityAt(null, worldPos);
+		Vector3 unroundedWorldPos = camera.unproject(touchPos.set(screenX, screenY, 0));
+		final int worldX = (int) Math.floor(unroundedWorldPos.x);
+		final int worldY = (int) Math.floor(unroundedWorldPos.y);
+		final int touchedButton = button;
+		world.post(new Runnable() {
+			@Override
+			public void run() {
+				interact(worldX, worldY, touchedButton);
 			}
-		} else if (button == 1) {
-			// Place entity
-			if (entity == null) {
-				ItemStack stackInHand = player.getSelectedStack();
-				if (stackInHand != null) {
-					if (stackInHand.getItem().isPlaceable()) {
-						GameEntity placeEntity = ((ItemPlaceableBase) stackInHand.getItem()).getEntity();
-						if (stackInHand.amount != -1) {
-							stackInHand.amount--;
-							if (stackInHand.amount == 0) {
-								player.getInventory().setStackInSlot(player.getSelectedSlotIndex(), null);
+		});
+		return false;
+	}
+
+	/**
+	 * Breaks or places a block at the passed tile. Runs on the thread updating the world.
+	 */
+	private void interact(int worldX, int worldY, int button) {
+		GameEntity entity = world.getEntityAt(worldX, worldY);
+		// The GUI reads and changes the inventory on the render thread
+		synchronized (player.getInventory()) {
+			if (button == 0) {
+				// Break block
+				if (entity != null && entity instanceof BlockBase) {
+					ItemStack stack = new ItemStack(entity.getPlaceable(), 1);
+					Slot slot = player.getInventory().getNextValidSlotFor(stack);
+					slot.addStack(stack);
+					world.setEntityAt(null, worldX, worldY);
+				}
+			} else if (button == 1) {
+				// Place entity
+				if (entity == null) {
+					ItemStack stackInHand = player.getSelectedStack();
+					if (stackInHand != null) {
+						if (stackInHand.getItem().isPlaceable()) {
+							GameEntity placeEntity = ((ItemPlaceableBase) stackInHand.getItem()).getEntity();
+							if (stackInHand.amount != -1) {
+								stackInHand.amount--;
+								if (stackInHand.amount == 0) {
+									player.getInventory().setStackInSlot(player.getSelectedSlotIndex(), null);
+								}
 							}
+							world.setEntityAt(placeEntity, worldX, worldY);
 						}
-						world.setEntityAt(placeEntity, worldPos);
 					}
 				}
 			}
 		}
-		return false;
 	}
 
 	@Override
 	public boolean scrolled(int amount) {
-		player.setSelectedSlot(player.getSelectedSlotIndex() + amount);
-		if (player.getSelectedSlotIndex() < 0)
-			player.setSelectedSlot(9);
-		if (player.getSelectedSlotIndex() > 9)
-			player.setSelectedSlot(0);
+		int slot = player.getSelectedSlotIndex() + amount;
+		if (slot < 0)
+			slot = 9;
+		if (slot > 9)
+			slot = 0;
+		selectSlot(slot);
 		return true;
 	}
 
 	@Override
 	public boolean keyDown(int keycode) {
 		if (keycode >= Input.Keys.NUM_0 && keycode <= Input.Keys.NUM_9) {
-			player.setSelectedSlot(keycode == Input.Keys.NUM_0 ? 9 : keycode - 8);
+			selectSlot(keycode == Input.Keys.NUM_0 ? 9 : keycode - 8);
 			return true;
 		}
 		return false;
 	}
 
+	/**
+	 * Selects the passed slot. Holds the inventory lock so {@link #interact(int, int, int)} on the
+	 * simulation thread never sees the selection change part way through.
+	 */
+	private void selectSlot(int slot) {
+		synchronized (player.getInventory()) {
+			player.setSelectedSlot(slot);
+		}
+	}
+
+	/**
+	 * Reads the movement keys. Runs on the render thread once per frame.
+	 */
+	public void pollInput() {
+		int keys = 0;
+		if (Gdx.input.isKeyPressed(Input.Keys.D)) keys |= RIGHT;
+		if (Gdx.input.isKeyPressed(Input.Keys.A)) keys |= LEFT;
+		if (Gdx.input.isKeyPressed(Input.Keys.W)) keys |= UP;
+		if (Gdx.input.isKeyPressed(Input.Keys.S)) keys |= DOWN;
+		movementKeys = keys;
+	}
+
+	/**
+	 * Applies the movement keys read by the last {@link #pollInput()} to the player. Runs once per tick.
+	 */
 	public void update() {
-		if (Gdx.input.isKeyPressed(Input.Keys.D)) {
+		int keys = movementKeys;
+		if ((keys & RIGHT) != 0) {
 			player.setVelocityX(player.getMovementSpeed());
 		}
 
-		if (Gdx.input.isKeyPressed(Input.Keys.A)) {
+		if ((keys & LEFT) != 0) {
 			player.setVelocityX(-player.getMovementSpeed());
 		}
 
-		if (Gdx.input.isKeyPressed(Input.Keys.W)) {
+		if ((keys & UP) != 0) {
 			player.setVelocityY(player.getMovementSpeed());
 		}
 
-		if (Gdx.input.isKeyPressed(Input.Keys.S)) {
+		if ((keys & DOWN) != 0) {
 			player.setVelocityY(-player.getMovementSpeed());
 		}
 	}
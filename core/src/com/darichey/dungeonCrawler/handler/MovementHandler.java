@@ -1,20 +1,88 @@
 package com.darichey.dungeonCrawler.handler;
 
-import com.darichey.dungeonCrawler.entity.living.EntityPlayer;
+import com.darichey.dungeonCrawler.entity.base.EntityStore;
+import com.darichey.dungeonCrawler.world.World;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
- * Applies velocity set by the {@link InputHandler} to the player.
+ * Applies the velocity of every dynamic entity in the world to its position, then damps the velocity.
  */
 public class MovementHandler extends HandlerBase {
-	private EntityPlayer player;
+	/**
+	 * Entity count above which movement is split across {@link #pool}. Below this the cost of handing out the work
+	 * is more than the work itself.
+	 */
+	public static int parallelThreshold = 8192;
+
+	/**
+	 * Most entities moved by a single task when movement is split
+	 */
+	private static final int ENTITIES_PER_TASK = 2048;
+
+	private static ForkJoinPool pool;
 
-	public MovementHandler(EntityPlayer player) {
-		this.player = player;
+	private World world;
+
+	public MovementHandler(World world) {
+		this.world = world;
 	}
 
 	@Override
 	public void update(float deltaTime) {
-		player.getPos().add(player.getVelocity().scl(deltaTime));
-		player.getVelocity().scl(player.getDampingSpeed());
+		EntityStore store = world.getEntityStore();
+		if (store.size > parallelThreshold && getPool().getParallelism() > 1) {
+			getPool().invoke(new MoveTask(store, 0, store.size, deltaTime));
+		} else {
+			move(store, 0, store.size, deltaTime);
+		}
+	}
+
+	/**
+	 * Moves the entities from index start up to but not including end
+	 */
+	private static void move(EntityStore store, int start, int end, float deltaTime) {
+		float[] x = store.x, y = store.y, velocityX = store.velocityX, velocityY = store.velocityY, damping = store.damping;
+		for (int i = start; i < end; i++) {
+			// The velocity keeps the delta it was scaled by before damping
+			float moveX = velocityX[i] * deltaTime;
+			float moveY = velocityY[i] * deltaTime;
+			x[i] += moveX;
+			y[i] += moveY;
+			velocityX[i] = moveX * damping[i];
+			velocityY[i] = moveY * damping[i];
+		}
+	}
+
+	private static ForkJoinPool getPool() {
+		if (pool == null) {
+			pool = new ForkJoinPool();
+		}
+		return pool;
+	}
+
+	@SuppressWarnings("serial")
+	private static class MoveTask extends RecursiveAction {
+		private final EntityStore store;
+		private final int start, end;
+		private final float deltaTime;
+
+		MoveTask(EntityStore store, int start, int end, float deltaTime) {
+			this.store = store;
+			this.start = start;
+			this.end = end;
+			this.deltaTime = deltaTime;
+		}
+
+		@Override
+		protected void compute() {
+			if (end - start <= ENTITIES_PER_TASK) {
+				move(store, start, end, deltaTime);
+			} else {
+				int middle = (start + end) >>> 1;
+				invokeAll(new MoveTask(store, start, middle, deltaTime), new MoveTask(store, middle, end, deltaTime));
+			}
+		}
 	}
 }
@@ -13,5 +13,6 @@ public class Entities {
 
 	public static void init() {
 		EntityRegistry.register(stone);
+		EntityRegistry.freeze();
 	}
 }
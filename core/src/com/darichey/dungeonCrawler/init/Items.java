@@ -13,5 +13,6 @@ public class Items {
 	public static void init() {
 		ItemRegistry.register(cookie);
 		ItemRegistry.register(stone);
+		ItemRegistry.freeze();
 	}
 }
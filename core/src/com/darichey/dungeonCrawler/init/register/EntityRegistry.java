@@ -1,29 +1,94 @@
 package com.darichey.dungeonCrawler.init.register;
 
+import com.badlogic.gdx.utils.IdentityMap;
+import com.badlogic.gdx.utils.ObjectMap;
 import com.darichey.dungeonCrawler.entity.base.GameEntity;
+import com.darichey.dungeonCrawler.entity.block.BlockBase;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.Map;
-import java.util.Set;
+import java.util.List;
 
 /**
- * Registry for entities
+ * Registry for entities. Entities may only be registered until the registry is frozen by {@link #freeze()}.
  */
 public class EntityRegistry {
-	private static HashMap<Integer, GameEntity> entities = new HashMap<Integer, GameEntity>();
+	/**
+	 * Registered entities indexed by ID. ID 0 is never assigned, it represents an empty tile.
+	 */
+	private static GameEntity[] entities = new GameEntity[16];
 	private static int nextID = 0;
 
+	/**
+	 * If the entity with each ID is a {@link BlockBase}, so tile maps can tell solid tiles apart without looking the entity up
+	 */
+	private static boolean[] solid = new boolean[16];
+
+	/**
+	 * ID of each registered entity, for reverse lookups
+	 */
+	private static IdentityMap<GameEntity, Integer> ids = new IdentityMap<GameEntity, Integer>();
+
+	/**
+	 * Registered entities by name. Names do not depend on registration order, so saved worlds refer to entities by name.
+	 */
+	private static ObjectMap<String, GameEntity> names = new ObjectMap<String, GameEntity>();
+
+	/**
+	 * Largest ID that can be assigned, so every ID fits in the short stored by {@link com.darichey.dungeonCrawler.world.chunk.EntityTileMap}
+	 */
+	public static final int maxID = Short.MAX_VALUE;
+
+	private static boolean frozen;
+
+	/**
+	 * Cached lists returned by {@link #getEntitiesOfType(Class)}, cleared when an entity is registered
+	 */
+	private static HashMap<Class<?>, List<GameEntity>> typeViews = new HashMap<Class<?>, List<GameEntity>>();
+
 	/**
 	 * Registers the passed entity, giving it a unique ID
 	 *
 	 * @param entity The entity to register
 	 */
 	public static void register(GameEntity entity) {
-		if (entities.containsValue(entity)) {
+		if (frozen) {
+			throw new IllegalStateException("Attempt to register an entity after the registry was frozen: " + entity.getName());
+		}
+		if (ids.containsKey(entity)) {
 			throw new IllegalArgumentException("Attempt to register an already-registered entity: " + entity.getName());
 		}
-		entities.put(++nextID, entity);
+		if (entity.getName() == null || names.containsKey(entity.getName())) {
+			throw new IllegalArgumentException("Attempt to register an entity without a unique name: " + entity.getName());
+		}
+		if (nextID == maxID) {
+			throw new IllegalStateException("No IDs left to register entity: " + entity.getName());
+		}
+		if (++nextID == entities.length) {
+			GameEntity[] grown = new GameEntity[Math.min(entities.length * 2, maxID + 1)];
+			System.arraycopy(entities, 0, grown, 0, entities.length);
+			entities = grown;
+			boolean[] grownSolid = new boolean[grown.length];
+			System.arraycopy(solid, 0, grownSolid, 0, solid.length);
+			solid = grownSolid;
+		}
+		entities[nextID] = entity;
+		solid[nextID] = entity instanceof BlockBase;
+		ids.put(entity, nextID);
+		names.put(entity.getName(), entity);
+		typeViews.clear();
+	}
+
+	/**
+	 * Prevents any more entities from being registered. Called once every entity has been registered in {@link com.darichey.dungeonCrawler.init.Entities#init()}
+	 */
+	public static void freeze() {
+		frozen = true;
+	}
+
+	public static boolean isFrozen() {
+		return frozen;
 	}
 
 	/**
@@ -33,34 +98,58 @@ public class EntityRegistry {
 	 * @return The linked entity
 	 */
 	public static GameEntity getEntityFromID(int id) {
-		return entities.get(id);
+		return id > 0 && id <= nextID ? entities[id] : null;
+	}
+
+	/**
+	 * @param id ID of an entity, or 0 for an empty tile
+	 * @return If the entity linked to the passed ID is a {@link BlockBase}
+	 */
+	public static boolean isSolid(int id) {
+		return id > 0 && id <= nextID && solid[id];
+	}
+
+	/**
+	 * @param name Name of the entity being searched for
+	 * @return The registered entity with the passed name, or null if there is none
+	 */
+	public static GameEntity getEntityFromName(String name) {
+		return names.get(name);
 	}
 
 	/**
 	 * Gets the ID linked to the passed entity
 	 *
 	 * @param entity Entity to find ID for
-	 * @return ID of entity
+	 * @return ID of entity, or null if it is not registered
 	 */
 	public static Integer getIDForEntity(GameEntity entity) {
-		Set<Map.Entry<Integer, GameEntity>> entries = entities.entrySet();
-		for (Map.Entry entry : entries) {
-			if (entry.getValue().equals(entity)) {
-				return (Integer) entry.getKey();
-			}
-		}
-		return null;
+		return ids.get(entity);
 	}
 
 	/**
-	 * @return A list of all registered entities
+	 * @return An unmodifiable list of all registered entities, in order of ID
 	 */
-	public static ArrayList<GameEntity> getRegisteredEntities() {
-		ArrayList<GameEntity> returnList = new ArrayList<GameEntity>();
-		Set<Map.Entry<Integer, GameEntity>> entries = entities.entrySet();
-		for (Map.Entry entry : entries) {
-			returnList.add((GameEntity) entry.getValue());
+	public static List<GameEntity> getRegisteredEntities() {
+		return getEntitiesOfType(GameEntity.class);
+	}
+
+	/**
+	 * @param type The class the entities must be an instance of
+	 * @return An unmodifiable list of the registered entities that are an instance of the passed class, in order of ID
+	 */
+	public static List<GameEntity> getEntitiesOfType(Class<?> type) {
+		List<GameEntity> view = typeViews.get(type);
+		if (view == null) {
+			ArrayList<GameEntity> list = new ArrayList<GameEntity>();
+			for (int id = 1; id <= nextID; id++) {
+				if (type.isInstance(entities[id])) {
+					list.add(entities[id]);
+				}
+			}
+			view = Collections.unmodifiableList(list);
+			typeViews.put(type, view);
 		}
-		return returnList;
+		return view;
 	}
 }
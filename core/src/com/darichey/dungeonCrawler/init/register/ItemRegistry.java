@@ -1,29 +1,66 @@
 package com.darichey.dungeonCrawler.init.register;
 
+import com.badlogic.gdx.utils.IdentityMap;
 import com.darichey.dungeonCrawler.item.ItemBase;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.Map;
-import java.util.Set;
+import java.util.List;
 
 /**
- * Registry for Items
+ * Registry for Items. Items may only be registered until the registry is frozen by {@link #freeze()}.
  */
 public class ItemRegistry {
-	private static HashMap<Integer, ItemBase> items = new HashMap<Integer, ItemBase>();
+	/**
+	 * Registered items indexed by ID. ID 0 is never assigned.
+	 */
+	private static ItemBase[] items = new ItemBase[16];
 	private static int nextID = 0;
 
+	/**
+	 * ID of each registered item, for reverse lookups
+	 */
+	private static IdentityMap<ItemBase, Integer> ids = new IdentityMap<ItemBase, Integer>();
+
+	private static boolean frozen;
+
+	/**
+	 * Cached lists returned by {@link #getItemsOfType(Class)}, cleared when an item is registered
+	 */
+	private static HashMap<Class<?>, List<ItemBase>> typeViews = new HashMap<Class<?>, List<ItemBase>>();
+
 	/**
 	 * Registers the passed item, giving it a unique ID
 	 *
 	 * @param item The item to register
 	 */
 	public static void register(ItemBase item) {
-		if (items.containsValue(item)) {
+		if (frozen) {
+			throw new IllegalStateException("Attempt to register an item after the registry was frozen: " + item.getName());
+		}
+		if (ids.containsKey(item)) {
 			throw new IllegalArgumentException("Attempt to register an already-registered item: " + item.getName());
 		}
-		items.put(++nextID, item);
+		if (++nextID == items.length) {
+			ItemBase[] grown = new ItemBase[items.length * 2];
+			System.arraycopy(items, 0, grown, 0, items.length);
+			items = grown;
+		}
+		items[nextID] = item;
+		ids.put(item, nextID);
+		typeViews.clear();
+	}
+
+	/**
+	 * Prevents any more items from being registered. Called once every item has been registered in {@link com.darichey.dungeonCrawler.init.Items#init()}
+	 */
+	public static void freeze() {
+		frozen = true;
+	}
+
+	public static boolean isFrozen() {
+		return frozen;
 	}
 
 	/**
@@ -33,34 +70,42 @@ public class ItemRegistry {
 	 * @return The linked item
 	 */
 	public static ItemBase getItemFromID(int id) {
-		return items.get(id);
+		return id > 0 && id <= nextID ? items[id] : null;
 	}
 
 	/**
 	 * Gets the ID linked to the passed item
 	 *
 	 * @param item Item to find ID for
-	 * @return ID of item
+	 * @return ID of item, or null if it is not registered
 	 */
 	public static Integer getIDForItem(ItemBase item) {
-		Set<Map.Entry<Integer, ItemBase>> entries = items.entrySet();
-		for (Map.Entry entry : entries) {
-			if (entry.getValue().equals(item)) {
-				return (Integer) entry.getKey();
-			}
-		}
-		return null;
+		return ids.get(item);
+	}
+
+	/**
+	 * @return An unmodifiable list of all registered items, in order of ID
+	 */
+	public static List<ItemBase> getRegisteredItems() {
+		return getItemsOfType(ItemBase.class);
 	}
 
 	/**
-	 * @return A list of all registered items
+	 * @param type The class the items must be an instance of
+	 * @return An unmodifiable list of the registered items that are an instance of the passed class, in order of ID
 	 */
-	public static ArrayList<ItemBase> getRegisteredItems() {
-		ArrayList<ItemBase> returnList = new ArrayList<ItemBase>();
-		Set<Map.Entry<Integer, ItemBase>> entries = items.entrySet();
-		for (Map.Entry entry : entries) {
-			returnList.add((ItemBase) entry.getValue());
+	public static List<ItemBase> getItemsOfType(Class<?> type) {
+		List<ItemBase> view = typeViews.get(type);
+		if (view == null) {
+			ArrayList<ItemBase> list = new ArrayList<ItemBase>();
+			for (int id = 1; id <= nextID; id++) {
+				if (type.isInstance(items[id])) {
+					list.add(items[id]);
+				}
+			}
+			view = Collections.unmodifiableList(list);
+			typeViews.put(type, view);
 		}
-		return returnList;
+		return view;
 	}
 }
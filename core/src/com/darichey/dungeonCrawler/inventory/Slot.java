@@ -38,20 +38,23 @@ public class Slot {
 		itemImage.addListener(new InputListener() {
 			@Override
 			public boolean touchDown(InputEvent event, float x, float y, int pointer, int button) {
-				if (inventory.getInteractingPlayer().cursorItemStack == null) {
-					// Pick up the itemstack in that slot
-					inventory.getInteractingPlayer().cursorItemStack = getItemStack();
-					setItemStack(null);
-				} else {
-					if (getItemStack() == null || inventory.getInteractingPlayer().cursorItemStack.getItem() != getItemStack().getItem()){
-						// Switch the itemstacks
-						ItemStack slotStack = getItemStack();
-						setItemStack(inventory.getInteractingPlayer().cursorItemStack);
-						inventory.getInteractingPlayer().cursorItemStack = slotStack;
+				// The world may change the inventory from the simulation thread
+				synchronized (inventory) {
+					if (inventory.getInteractingPlayer().cursorItemStack == null) {
+						// Pick up the itemstack in that slot
+						inventory.getInteractingPlayer().cursorItemStack = getItemStack();
+						setItemStack(null);
 					} else {
-						// Try to stack the two itemstacks
-						addStack(inventory.getInteractingPlayer().cursorItemStack);
-						inventory.getInteractingPlayer().cursorItemStack = null;
+						if (getItemStack() == null || inventory.getInteractingPlayer().cursorItemStack.getItem() != getItemStack().getItem()){
+							// Switch the itemstacks
+							ItemStack slotStack = getItemStack();
+							setItemStack(inventory.getInteractingPlayer().cursorItemStack);
+							inventory.getInteractingPlayer().cursorItemStack = slotStack;
+						} else {
+							// Try to stack the two itemstacks
+							addStack(inventory.getInteractingPlayer().cursorItemStack);
+							inventory.getInteractingPlayer().cursorItemStack = null;
+						}
 					}
 				}
 				return false;
@@ -61,9 +64,11 @@ public class Slot {
 		slotImage.addListener(new InputListener() {
 			@Override
 			public boolean touchDown(InputEvent event, float x, float y, int pointer, int button) {
-				if (inventory.getInteractingPlayer().cursorItemStack != null) {
-					setItemStack(inventory.getInteractingPlayer().cursorItemStack);
-					inventory.getInteractingPlayer().cursorItemStack = null;
+				synchronized (inventory) {
+					if (inventory.getInteractingPlayer().cursorItemStack != null) {
+						setItemStack(inventory.getInteractingPlayer().cursorItemStack);
+						inventory.getInteractingPlayer().cursorItemStack = null;
+					}
 				}
 				return false;
 			}
@@ -0,0 +1,292 @@
+package com.darichey.dungeonCrawler.physics;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.physics.box2d.BodyDef;
+import com.badlogic.gdx.physics.box2d.Box2D;
+import com.badlogic.gdx.physics.box2d.Contact;
+import com.badlogic.gdx.physics.box2d.ContactImpulse;
+import com.badlogic.gdx.physics.box2d.ContactListener;
+import com.badlogic.gdx.physics.box2d.FixtureDef;
+import com.badlogic.gdx.physics.box2d.Manifold;
+import com.badlogic.gdx.physics.box2d.PolygonShape;
+import com.badlogic.gdx.physics.box2d.WorldManifold;
+import com.badlogic.gdx.utils.IdentityMap;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.LongMap;
+import com.darichey.dungeonCrawler.entity.base.DynamicEntity;
+import com.darichey.dungeonCrawler.entity.base.EntityStore;
+import com.darichey.dungeonCrawler.event.EventManager;
+import com.darichey.dungeonCrawler.event.world.entity.EventDynamicCollideBlock;
+import com.darichey.dungeonCrawler.event.world.entity.EventDynamicCollideDynamic;
+import com.darichey.dungeonCrawler.world.World;
+import com.darichey.dungeonCrawler.world.chunk.Chunk;
+
+import java.util.Iterator;
+
+/**
+ * Physics backed by Box2D. Each loaded chunk gets a static body with a box fixture for each of its merged collision
+ * shapes ({@link Chunk#getCollisionShapes()}), rebuilt when the chunk's tiles change. Each dynamic entity gets a body
+ * that cannot rotate. The {@link EntityStore} stays the source of truth: bodies take their position and velocity
+ * from it before the step and write them back after.
+ * <p>
+ * Box2D moves a body at most 2 units per step, so entities faster than 2 tiles per tick are slowed down.
+ * <p>
+ * A step costs roughly one and a half to two and a half times as much as the built-in physics with up to 100 bodies,
+ * and about the same with 1000. PhysicsBenchmark in the desktop project measures both.
+ */
+public class Box2DPhysics implements PhysicsBackend {
+	private static final int VELOCITY_ITERATIONS = 6;
+	private static final int POSITION_ITERATIONS = 2;
+
+	/** Distance a body may be from its entity before it is moved to it, and the nudge used to find the tile at a contact **/
+	private static final float EPSILON = 1e-4f;
+
+	private World world;
+	private com.badlogic.gdx.physics.box2d.World physicsWorld;
+
+	/** Static body of each loaded chunk, keyed by {@link World#getChunkKey(int, int)} **/
+	private LongMap<ChunkBody> chunkBodies = new LongMap<ChunkBody>();
+
+	/** Body of each dynamic entity in the world **/
+	private IdentityMap<DynamicEntity, EntityBody> entityBodies = new IdentityMap<DynamicEntity, EntityBody>();
+
+	/** Incremented every step. Bodies not visited during a step belong to chunks or entities that left the world. **/
+	private int stepCount;
+
+	/** Reused while creating bodies **/
+	private BodyDef bodyDef = new BodyDef();
+	private FixtureDef fixtureDef = new FixtureDef();
+	private PolygonShape box;
+	private Vector2 center = new Vector2();
+
+	/**
+	 * @throws com.badlogic.gdx.utils.GdxRuntimeException If the Box2D natives can not be loaded
+	 */
+	public Box2DPhysics(World world) {
+		Box2D.init();
+		this.box = new PolygonShape();
+		this.world = world;
+		this.physicsWorld = new com.badlogic.gdx.physics.box2d.World(new Vector2(), true);
+		this.physicsWorld.setContactListener(new ContactListener() {
+			@Override
+			public void beginContact(Contact contact) {
+			}
+
+			@Override
+			public void endContact(Contact contact) {
+			}
+
+			@Override
+			public void preSolve(Contact contact, Manifold oldManifold) {
+				// Dynamic entities pass through each other and only report the overlap, like in CollisionHandler
+				if (contact.getFixtureA().getBody().getType() == BodyDef.BodyType.DynamicBody
+						&& contact.getFixtureB().getBody().getType() == BodyDef.BodyType.DynamicBody) {
+					contact.setEnabled(false);
+				}
+			}
+
+			@Override
+			public void postSolve(Contact contact, ContactImpulse impulse) {
+			}
+		});
+		fixtureDef.shape = box;
+		// Without friction entities slide along walls instead of sticking to them
+		fixtureDef.friction = 0;
+		fixtureDef.density = 1;
+	}
+
+	@Override
+	public void step(float deltaTime) {
+		stepCount++;
+		updateChunkBodies();
+
+		EntityStore store = world.getEntityStore();
+		for (int i = 0; i < store.size; i++) {
+			Body body = getEntityBody(store, i);
+			float centerX = store.x[i] + store.width[i] / 2;
+			float centerY = store.y[i] + store.height[i] / 2;
+			// Follow entities that were moved outside of physics
+			Vector2 pos = body.getPosition();
+			if (Math.abs(pos.x - centerX) > EPSILON || Math.abs(pos.y - centerY) > EPSILON) {
+				body.setTransform(centerX, centerY, 0);
+			}
+			body.setLinearVelocity(store.velocityX[i], store.velocityY[i]);
+		}
+		removeUnvisitedEntityBodies();
+
+		physicsWorld.step(deltaTime, VELOCITY_ITERATIONS, POSITION_ITERATIONS);
+
+		for (int i = 0; i < store.size; i++) {
+			Body body = entityBodies.get(store.entities[i]).body;
+			Vector2 pos = body.getPosition();
+			Vector2 velocity = body.getLinearVelocity();
+			store.x[i] = pos.x - store.width[i] / 2;
+			store.y[i] = pos.y - store.height[i] / 2;
+			// Damped the same way as in MovementHandler
+			store.velocityX[i] = velocity.x * deltaTime * store.damping[i];
+			store.velocityY[i] = velocity.y * deltaTime * store.damping[i];
+		}
+		queueContactEvents();
+	}
+
+	/**
+	 * Creates bodies for chunks that were loaded or changed since the last step, and destroys those of unloaded chunks
+	 */
+	private void updateChunkBodies() {
+		for (Chunk chunk : world.chunks) {
+			long key = World.getChunkKey(chunk.getX(), chunk.getY());
+			ChunkBody chunkBody = chunkBodies.get(key);
+			if (chunkBody == null) {
+				chunkBody = new ChunkBody();
+				chunkBodies.put(key, chunkBody);
+			}
+			if (chunkBody.chunk != chunk || chunkBody.revision != chunk.getRevision()) {
+				if (chunkBody.body != null) {
+					physicsWorld.destroyBody(chunkBody.body);
+				}
+				chunkBody.body = createChunkBody(chunk);
+				chunkBody.chunk = chunk;
+				chunkBody.revision = chunk.getRevision();
+			}
+			chunkBody.visited = stepCount;
+		}
+
+		Iterator<LongMap.Entry<ChunkBody>> entries = chunkBodies.entries().iterator();
+		while (entries.hasNext()) {
+			ChunkBody chunkBody = entries.next().value;
+			if (chunkBody.visited != stepCount) {
+				if (chunkBody.body != null) {
+					physicsWorld.destroyBody(chunkBody.body);
+				}
+				entries.remove();
+			}
+		}
+	}
+
+	/**
+	 * @return A static body with a fixture for each collision shape of the chunk, or null if the chunk has no blocks
+	 */
+	private Body createChunkBody(Chunk chunk) {
+		IntArray shapes = chunk.getCollisionShapes();
+		if (shapes.size == 0) return null;
+		bodyDef.type = BodyDef.BodyType.StaticBody;
+		bodyDef.fixedRotation = false;
+		bodyDef.position.set(chunk.getWorldX(0), chunk.getWorldY(0));
+		Body body = physicsWorld.createBody(bodyDef);
+		for (int i = 0; i < shapes.size; i += 4) {
+			float halfWidth = shapes.items[i + 2] / 2f;
+			float halfHeight = shapes.items[i + 3] / 2f;
+			box.setAsBox(halfWidth, halfHeight, center.set(shapes.items[i] + halfWidth, shapes.items[i + 1] + halfHeight), 0);
+			body.createFixture(fixtureDef);
+		}
+		body.setUserData(chunk);
+		return body;
+	}
+
+	/**
+	 * Gets the body of the entity at the passed index, creating it if the entity is new or changed size
+	 */
+	private Body getEntityBody(EntityStore store, int index) {
+		DynamicEntity entity = store.entities[index];
+		EntityBody entityBody = entityBodies.get(entity);
+		if (entityBody == null) {
+			entityBody = new EntityBody();
+			entityBodies.put(entity, entityBody);
+		}
+		if (entityBody.body == null || entityBody.width != store.width[index] || entityBody.height != store.height[index]) {
+			if (entityBody.body != null) {
+				physicsWorld.destroyBody(entityBody.body);
+			}
+			bodyDef.type = BodyDef.BodyType.DynamicBody;
+			bodyDef.fixedRotation = true;
+			bodyDef.position.set(store.x[index] + store.width[index] / 2, store.y[index] + store.height[index] / 2);
+			entityBody.body = physicsWorld.createBody(bodyDef);
+			box.setAsBox(store.width[index] / 2, store.height[index] / 2, center.setZero(), 0);
+			entityBody.body.createFixture(fixtureDef);
+			entityBody.body.setUserData(entity);
+			entityBody.width = store.width[index];
+			entityBody.height = store.height[index];
+		}
+		entityBody.visited = stepCount;
+		return entityBody.body;
+	}
+
+	private void removeUnvisitedEntityBodies() {
+		Iterator<IdentityMap.Entry<DynamicEntity, EntityBody>> entries = entityBodies.entries().iterator();
+		while (entries.hasNext()) {
+			EntityBody entityBody = entries.next().value;
+			if (entityBody.visited != stepCount) {
+				physicsWorld.destroyBody(entityBody.body);
+				entries.remove();
+			}
+		}
+	}
+
+	/**
+	 * Queues a collision event for every touching contact, so events are posted every tick two things touch, like
+	 * in CollisionHandler
+	 */
+	private void queueContactEvents() {
+		for (Contact contact : physicsWorld.getContactList()) {
+			if (!contact.isTouching()) continue;
+			Object first = contact.getFixtureA().getBody().getUserData();
+			Object second = contact.getFixtureB().getBody().getUserData();
+			if (first instanceof DynamicEntity && second instanceof DynamicEntity) {
+				EventManager.queue(EventManager.obtain(EventDynamicCollideDynamic.class).set((DynamicEntity) first, (DynamicEntity) second));
+			} else if (first instanceof DynamicEntity) {
+				queueBlockCollisions((DynamicEntity) first, contact, 1);
+			} else if (second instanceof DynamicEntity) {
+				queueBlockCollisions((DynamicEntity) second, contact, -1);
+			}
+		}
+	}
+
+	/**
+	 * Queues a collision event for the block at each point of a contact between an entity and a chunk
+	 *
+	 * @param direction 1 if the chunk is fixture B of the contact, -1 if it is fixture A
+	 */
+	private void queueBlockCollisions(DynamicEntity dynamic, Contact contact, float direction) {
+		WorldManifold manifold = contact.getWorldManifold();
+		Vector2 normal = manifold.getNormal();
+		Vector2[] points = manifold.getPoints();
+		for (int i = 0; i < manifold.getNumberOfContactPoints(); i++) {
+			// The normal points from fixture A to fixture B, so stepping along it leads into the block. Along the face
+			// the point is kept within the entity, so a point on its corner does not pick the next tile over.
+			float x, y;
+			if (Math.abs(normal.x) > Math.abs(normal.y)) {
+				x = points[i].x + normal.x * direction * EPSILON;
+				y = MathUtils.clamp(points[i].y, dynamic.getY() + EPSILON, dynamic.getY() + dynamic.getHeight() - EPSILON);
+			} else {
+				x = MathUtils.clamp(points[i].x, dynamic.getX() + EPSILON, dynamic.getX() + dynamic.getWidth() - EPSILON);
+				y = points[i].y + normal.y * direction * EPSILON;
+			}
+			int tileX = (int) Math.floor(x);
+			int tileY = (int) Math.floor(y);
+			if (world.isSolidAt(tileX, tileY)) {
+				EventManager.queue(EventManager.obtain(EventDynamicCollideBlock.class).set(dynamic, tileX, tileY));
+			}
+		}
+	}
+
+	@Override
+	public void dispose() {
+		box.dispose();
+		physicsWorld.dispose();
+	}
+
+	private static class ChunkBody {
+		Chunk chunk;
+		int revision;
+		int visited;
+		Body body;
+	}
+
+	private static class EntityBody {
+		float width, height;
+		int visited;
+		Body body;
+	}
+}
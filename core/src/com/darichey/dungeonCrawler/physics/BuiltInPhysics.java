@@ -0,0 +1,29 @@
+package com.darichey.dungeonCrawler.physics;
+
+import com.darichey.dungeonCrawler.handler.CollisionHandler;
+import com.darichey.dungeonCrawler.handler.HandlerBase;
+import com.darichey.dungeonCrawler.handler.MovementHandler;
+import com.darichey.dungeonCrawler.world.World;
+
+/**
+ * The game's own physics: {@link MovementHandler} followed by {@link CollisionHandler}
+ */
+public class BuiltInPhysics implements PhysicsBackend {
+	private HandlerBase movementHandler;
+	private HandlerBase collisionHandler;
+
+	public BuiltInPhysics(World world) {
+		this.movementHandler = new MovementHandler(world);
+		this.collisionHandler = new CollisionHandler(world);
+	}
+
+	@Override
+	public void step(float deltaTime) {
+		movementHandler.update(deltaTime);
+		collisionHandler.update(deltaTime);
+	}
+
+	@Override
+	public void dispose() {
+	}
+}
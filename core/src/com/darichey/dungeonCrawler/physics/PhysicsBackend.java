@@ -0,0 +1,17 @@
+package com.darichey.dungeonCrawler.physics;
+
+import com.badlogic.gdx.utils.Disposable;
+
+/**
+ * Moves the dynamic entities of a world and stops them at blocks. Collisions are reported by queueing
+ * {@link com.darichey.dungeonCrawler.event.world.entity.EventDynamicCollideBlock} and
+ * {@link com.darichey.dungeonCrawler.event.world.entity.EventDynamicCollideDynamic}.
+ */
+public interface PhysicsBackend extends Disposable {
+	/**
+	 * Advances every dynamic entity in the world by one tick
+	 *
+	 * @param deltaTime Length of the tick in seconds
+	 */
+	void step(float deltaTime);
+}
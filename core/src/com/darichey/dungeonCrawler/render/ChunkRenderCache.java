@@ -0,0 +1,115 @@
+package com.darichey.dungeonCrawler.render;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.SpriteCache;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.darichey.dungeonCrawler.entity.base.GameEntity;
+import com.darichey.dungeonCrawler.init.register.EntityRegistry;
+import com.darichey.dungeonCrawler.world.chunk.Chunk;
+
+/**
+ * Geometry for every block in a chunk, uploaded to the GPU once and drawn with a single call until the chunk changes.
+ */
+public class ChunkRenderCache implements Disposable {
+	private static final float WHITE = Color.WHITE.toFloatBits();
+
+	private static final String VERTEX_SHADER = "attribute vec4 " + ShaderProgram.POSITION_ATTRIBUTE + ";\n"
+			+ "attribute vec4 " + ShaderProgram.COLOR_ATTRIBUTE + ";\n"
+			+ "attribute vec2 " + ShaderProgram.TEXCOORD_ATTRIBUTE + "0;\n"
+			+ "uniform mat4 u_projTrans;\n"
+			+ "varying vec4 v_color;\n"
+			+ "varying vec2 v_texCoords;\n"
+			+ "void main() {\n"
+			+ "	v_color = " + ShaderProgram.COLOR_ATTRIBUTE + ";\n"
+			+ "	v_color.a = v_color.a * (255.0 / 254.0);\n"
+			+ "	v_texCoords = " + ShaderProgram.TEXCOORD_ATTRIBUTE + "0;\n"
+			+ "	gl_Position = u_projTrans * " + ShaderProgram.POSITION_ATTRIBUTE + ";\n"
+			+ "}\n";
+	private static final String FRAGMENT_SHADER = "#ifdef GL_ES\n"
+			+ "precision mediump float;\n"
+			+ "#endif\n"
+			+ "varying vec4 v_color;\n"
+			+ "varying vec2 v_texCoords;\n"
+			+ "uniform sampler2D u_texture;\n"
+			+ "void main() {\n"
+			+ "	gl_FragColor = v_color * texture2D(u_texture, v_texCoords);\n"
+			+ "}\n";
+
+	private SpriteCache spriteCache;
+	private int cacheID;
+
+	/** The tiles the geometry was built from. Snapshot tile arrays are replaced rather than changed. **/
+	private short[] tiles;
+
+	/** The last frame this cache was rendered in **/
+	public int lastRenderedFrame;
+
+	/**
+	 * Creates the shader caches draw their geometry with. One shader can be shared by every cache, which saves
+	 * compiling a shader for each of them.
+	 */
+	public static ShaderProgram createShader() {
+		ShaderProgram shader = new ShaderProgram(VERTEX_SHADER, FRAGMENT_SHADER) {
+			@Override
+			public void setUniformMatrix(String name, Matrix4 matrix) {
+				// SpriteCache also sets u_proj and u_trans for custom shaders, which this one does not use
+				if (hasUniform(name)) super.setUniformMatrix(name, matrix);
+			}
+		};
+		if (!shader.isCompiled()) throw new GdxRuntimeException("Couldn't compile chunk shader: " + shader.getLog());
+		return shader;
+	}
+
+	/**
+	 * @param shader Shader to draw the geometry with, from {@link #createShader()}. Not disposed with the cache.
+	 */
+	public ChunkRenderCache(ShaderProgram shader) {
+		spriteCache = new SpriteCache(Chunk.length * Chunk.length, shader, false);
+	}
+
+	/**
+	 * @return If the geometry was built from the passed tiles, from {@link Chunk#getTilesSnapshot()}
+	 */
+	public boolean isBuiltFrom(short[] tiles) {
+		return this.tiles == tiles;
+	}
+
+	/**
+	 * Rebuilds the geometry from the blocks in the passed tiles
+	 *
+	 * @param chunkX X position of the chunk, in chunks
+	 * @param chunkY Y position of the chunk, in chunks
+	 * @param tiles  The chunk's tiles, from {@link Chunk#getTilesSnapshot()}
+	 */
+	public void build(int chunkX, int chunkY, short[] tiles) {
+		spriteCache.clear();
+		spriteCache.beginCache();
+		int worldX = chunkX << Chunk.lengthBits;
+		int worldY = chunkY << Chunk.lengthBits;
+		for (int y = 0; y < Chunk.length; y++) {
+			for (int x = 0; x < Chunk.length; x++) {
+				GameEntity entity = EntityRegistry.getEntityFromID(tiles[y * Chunk.length + x]);
+				if (entity != null) {
+					spriteCache.add(entity.getTexture(), worldX + x, worldY + y, entity.width, entity.height, 0, 1, 1, 0, WHITE);
+				}
+			}
+		}
+		this.cacheID = spriteCache.endCache();
+		this.tiles = tiles;
+	}
+
+	public void render(Matrix4 projection) {
+		spriteCache.setProjectionMatrix(projection);
+		spriteCache.begin();
+		spriteCache.draw(cacheID);
+		spriteCache.end();
+	}
+
+	@Override
+	public void dispose() {
+		spriteCache.dispose();
+	}
+}
@@ -0,0 +1,212 @@
+package com.darichey.dungeonCrawler.render;
+
+import box2dLight.Light;
+import box2dLight.PointLight;
+import box2dLight.RayHandler;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.physics.box2d.BodyDef;
+import com.badlogic.gdx.physics.box2d.Box2D;
+import com.badlogic.gdx.physics.box2d.PolygonShape;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.IdentityMap;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.LongMap;
+import com.darichey.dungeonCrawler.entity.base.DynamicEntity;
+import com.darichey.dungeonCrawler.world.World;
+import com.darichey.dungeonCrawler.world.chunk.Chunk;
+import com.darichey.dungeonCrawler.world.chunk.EntityTileMap;
+
+/**
+ * Darkens the world and draws lights attached to dynamic entities, with shadows cast by blocks. Lights are cast
+ * with box2dlights against a Box2D world holding only the blocks of chunks near the camera. Each chunk's blocks are
+ * merged into a few boxes, which are kept until the chunk changes.
+ * <p>
+ * Only used from the render thread. Like {@link WorldRenderer}, everything is read from a {@link WorldSnapshot}.
+ */
+public class LightRenderer implements Disposable {
+	private com.badlogic.gdx.physics.box2d.World occluderWorld;
+	private RayHandler rayHandler;
+
+	/** Light attached to each entity **/
+	private IdentityMap<DynamicEntity, AttachedLight> lights = new IdentityMap<DynamicEntity, AttachedLight>();
+
+	/** Blocks of recently lit chunks, keyed by {@link World#getChunkKey(int, int)} **/
+	private LongMap<ChunkOccluder> occluders = new LongMap<ChunkOccluder>();
+	private int frame;
+
+	/** Frames a chunk's blocks are kept for after they were last in range of the camera **/
+	private static final int OCCLUDER_EVICT_FRAMES = 120;
+
+	/** Longest distance of any attached light. Blocks this far outside the camera can still cast shadows into it. **/
+	private float maxLightDistance;
+
+	/** Number of rays cast by each light **/
+	public static int rays = 128;
+
+	/** Reused while creating bodies **/
+	private BodyDef bodyDef = new BodyDef();
+	private PolygonShape box;
+	private Vector2 center = new Vector2();
+	private IntArray shapes = new IntArray();
+
+	/**
+	 * @throws com.badlogic.gdx.utils.GdxRuntimeException If the Box2D natives can not be loaded
+	 */
+	public LightRenderer() {
+		Box2D.init();
+		box = new PolygonShape();
+		bodyDef.type = BodyDef.BodyType.StaticBody;
+		occluderWorld = new com.badlogic.gdx.physics.box2d.World(new Vector2(), true);
+		rayHandler = new RayHandler(occluderWorld);
+		rayHandler.setAmbientLight(0.2f, 0.2f, 0.25f, 1f);
+		// Lights whose range does not reach the camera are not updated or drawn
+		rayHandler.setCulling(true);
+	}
+
+	/**
+	 * Attaches a light to the passed entity, replacing any light it already had. The light is centered on the entity
+	 * and only shines while the entity is in the world.
+	 *
+	 * @param entity   The entity to attach the light to
+	 * @param color    Color of the light
+	 * @param distance How far the light reaches, in tiles
+	 * @return The attached light
+	 */
+	public Light attach(DynamicEntity entity, Color color, float distance) {
+		detach(entity);
+		AttachedLight attached = new AttachedLight();
+		attached.light = new PointLight(rayHandler, rays, color, distance, entity.getX(), entity.getY());
+		attached.light.setActive(false);
+		lights.put(entity, attached);
+		maxLightDistance = Math.max(maxLightDistance, distance);
+		return attached.light;
+	}
+
+	/**
+	 * Removes the light attached to the passed entity, if it has one
+	 */
+	public void detach(DynamicEntity entity) {
+		AttachedLight attached = lights.remove(entity);
+		if (attached != null) {
+			attached.light.remove();
+			attached.light.dispose();
+		}
+	}
+
+	/**
+	 * Moves the lights to their entities and draws them over everything drawn so far
+	 *
+	 * @param snapshot The world being drawn
+	 * @param alpha    How far between the previous and the current tick to place lights, from 0 to 1
+	 * @param camera   The camera the world was drawn with
+	 */
+	public void render(WorldSnapshot snapshot, float alpha, OrthographicCamera camera) {
+		if (lights.size > 0) {
+			for (int i = 0; i < snapshot.entityCount; i++) {
+				AttachedLight attached = lights.get(snapshot.entities[i]);
+				if (attached != null) {
+					float x = snapshot.prevX[i] + (snapshot.x[i] - snapshot.prevX[i]) * alpha;
+					float y = snapshot.prevY[i] + (snapshot.y[i] - snapshot.prevY[i]) * alpha;
+					attached.light.setPosition(x + snapshot.width[i] / 2, y + snapshot.height[i] / 2);
+					attached.litFrame = frame;
+				}
+			}
+			for (AttachedLight attached : lights.values()) {
+				boolean inWorld = attached.litFrame == frame;
+				if (attached.light.isActive() != inWorld) {
+					attached.light.setActive(inWorld);
+				}
+			}
+		}
+		updateOccluders(snapshot, camera);
+
+		rayHandler.setCombinedMatrix(camera);
+		rayHandler.updateAndRender();
+		frame++;
+	}
+
+	/**
+	 * Creates the blocks of chunks within reach of a light that can be seen, rebuilding those of chunks that changed,
+	 * and destroys the blocks of chunks that have been out of reach for a while
+	 */
+	private void updateOccluders(WorldSnapshot snapshot, OrthographicCamera camera) {
+		float reachX = camera.viewportWidth * camera.zoom / 2 + maxLightDistance;
+		float reachY = camera.viewportHeight * camera.zoom / 2 + maxLightDistance;
+		int minChunkX = (int) Math.floor(camera.position.x - reachX) >> Chunk.lengthBits;
+		int minChunkY = (int) Math.floor(camera.position.y - reachY) >> Chunk.lengthBits;
+		int maxChunkX = (int) Math.floor(camera.position.x + reachX) >> Chunk.lengthBits;
+		int maxChunkY = (int) Math.floor(camera.position.y + reachY) >> Chunk.lengthBits;
+		for (int chunkY = minChunkY; chunkY <= maxChunkY; chunkY++) {
+			for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+				long key = World.getChunkKey(chunkX, chunkY);
+				short[] tiles = snapshot.chunkTiles.get(key);
+				if (tiles == null) continue;
+				ChunkOccluder occluder = occluders.get(key);
+				if (occluder == null) {
+					occluder = new ChunkOccluder();
+					occluders.put(key, occluder);
+				}
+				if (occluder.tiles != tiles) {
+					if (occluder.body != null) {
+						occluderWorld.destroyBody(occluder.body);
+					}
+					occluder.body = createOccluderBody(chunkX, chunkY, tiles);
+					occluder.tiles = tiles;
+				}
+				occluder.usedFrame = frame;
+			}
+		}
+
+		LongMap.Values<ChunkOccluder> values = occluders.values();
+		while (values.hasNext()) {
+			ChunkOccluder occluder = values.next();
+			if (frame - occluder.usedFrame > OCCLUDER_EVICT_FRAMES) {
+				if (occluder.body != null) {
+					occluderWorld.destroyBody(occluder.body);
+				}
+				values.remove();
+			}
+		}
+	}
+
+	/**
+	 * @return A static body with a box for each merged group of blocks in the chunk, or null if it has no blocks
+	 */
+	private Body createOccluderBody(int chunkX, int chunkY, short[] tiles) {
+		shapes.clear();
+		EntityTileMap.getSolidRectangles(tiles, Chunk.length, shapes);
+		if (shapes.size == 0) return null;
+		bodyDef.position.set(chunkX << Chunk.lengthBits, chunkY << Chunk.lengthBits);
+		Body body = occluderWorld.createBody(bodyDef);
+		for (int i = 0; i < shapes.size; i += 4) {
+			float halfWidth = shapes.items[i + 2] / 2f;
+			float halfHeight = shapes.items[i + 3] / 2f;
+			box.setAsBox(halfWidth, halfHeight, center.set(shapes.items[i] + halfWidth, shapes.items[i + 1] + halfHeight), 0);
+			body.createFixture(box, 0);
+		}
+		return body;
+	}
+
+	@Override
+	public void dispose() {
+		rayHandler.dispose();
+		box.dispose();
+		occluderWorld.dispose();
+	}
+
+	private static class AttachedLight {
+		Light light;
+		/** The last frame the entity was found in the snapshot **/
+		int litFrame = -1;
+	}
+
+	private static class ChunkOccluder {
+		/** The snapshot tiles the body was built from **/
+		short[] tiles;
+		int usedFrame;
+		Body body;
+	}
+}
@@ -0,0 +1,40 @@
+package com.darichey.dungeonCrawler.render;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Hands {@link WorldSnapshot}s from the thread updating the world to the thread rendering it without either waiting
+ * for the other. The updating thread fills one snapshot while the renderer reads another, and finished snapshots are
+ * swapped through a third, so neither thread ever sees a snapshot being written.
+ */
+public class SnapshotBuffer {
+	private WorldSnapshot back = new WorldSnapshot();
+	private WorldSnapshot front = new WorldSnapshot();
+	private final AtomicReference<WorldSnapshot> ready = new AtomicReference<WorldSnapshot>(new WorldSnapshot());
+
+	/**
+	 * @return The snapshot to fill before calling {@link #publish()}. Only used by the updating thread.
+	 */
+	public WorldSnapshot getBack() {
+		return back;
+	}
+
+	/**
+	 * Makes the snapshot returned by {@link #getBack()} the latest one
+	 */
+	public void publish() {
+		back.fresh = true;
+		back = ready.getAndSet(back);
+	}
+
+	/**
+	 * @return The latest published snapshot. Only used by the rendering thread, and only valid until the next call.
+	 */
+	public WorldSnapshot acquire() {
+		if (ready.get().fresh) {
+			front = ready.getAndSet(front);
+			front.fresh = false;
+		}
+		return front;
+	}
+}
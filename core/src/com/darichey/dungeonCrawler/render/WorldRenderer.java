@@ -4,49 +4,93 @@ import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
-import com.badlogic.gdx.math.Vector2;
-import com.badlogic.gdx.math.Vector3;
-import com.darichey.dungeonCrawler.entity.base.DynamicEntity;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.LongMap;
 import com.darichey.dungeonCrawler.entity.base.GameEntity;
+import com.darichey.dungeonCrawler.init.register.EntityRegistry;
 import com.darichey.dungeonCrawler.world.World;
 import com.darichey.dungeonCrawler.world.chunk.Chunk;
 
 /**
  * Renders all game objects within the world
  */
-public class WorldRenderer {
+public class WorldRenderer implements Disposable {
 	private SpriteBatch batch;
-	private World world;
+	/** Draws the lights attached to dynamic entities over the world **/
+	public LightRenderer lightRenderer;
 	public static ShapeRenderer debugRenderer = new ShapeRenderer();
 	public OrthographicCamera camera;
 	public static boolean debugRender = false;
 
+	/** The range of tiles covered by the camera's viewport this frame **/
+	private int viewMinX, viewMinY, viewMaxX, viewMaxY;
+	/** The snapshot being drawn this frame, and how far between its ticks dynamic entities are drawn **/
+	private WorldSnapshot snapshot;
+	private float alpha;
+
+	/** Shader every chunk's block geometry is drawn with **/
+	private ShaderProgram chunkShader;
+	/** Block geometry of recently visible chunks, keyed by {@link World#getChunkKey(int, int)} **/
+	private LongMap<ChunkRenderCache> chunkCaches = new LongMap<ChunkRenderCache>();
+	/** Evicted caches kept to be reused by other chunks **/
+	private Array<ChunkRenderCache> freeCaches = new Array<ChunkRenderCache>();
+	private int frame;
+
+	/** Frames a chunk's cache is kept for after the chunk was last visible **/
+	private static final int CACHE_EVICT_FRAMES = 120;
+	private static final int MAX_FREE_CACHES = 16;
+
 	private int VIEWPORT_WIDTH = 60;
 	private int VIEWPORT_HEIGHT = 32;
 
-	public WorldRenderer(World world) {
-		this.world = world;
+	public WorldRenderer() {
 		batch = new SpriteBatch();
+		chunkShader = ChunkRenderCache.createShader();
 		camera = new OrthographicCamera(VIEWPORT_WIDTH, VIEWPORT_HEIGHT);
+		lightRenderer = new LightRenderer();
 	}
 
-	public void render() {
+	/**
+	 * @param snapshot The world to draw
+	 * @param alpha    How far between the previous and the current tick to draw dynamic entities, from 0 to 1
+	 */
+	public void render(WorldSnapshot snapshot, float alpha) {
+		this.snapshot = snapshot;
+		this.alpha = alpha;
 		Gdx.gl.glClearColor(0f, 10f, 200f, 0f);
 		Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
-		camera.position.x = world.player.getPos().x;
-		camera.position.y = world.player.getPos().y;
+		camera.position.x = lerp(snapshot.playerPrevX, snapshot.playerX);
+		camera.position.y = lerp(snapshot.playerPrevY, snapshot.playerY);
 		camera.update();
+		updateView();
 
+		renderBlocks();
 		batch.setProjectionMatrix(camera.combined);
 		batch.begin();
-		renderBlocks();
 		renderDynamics();
 		batch.end();
+		lightRenderer.render(snapshot, alpha, camera);
+		frame++;
 
 		if (debugRender) renderDebug();
 	}
 
+	@Override
+	public void dispose() {
+		lightRenderer.dispose();
+		batch.dispose();
+		for (ChunkRenderCache cache : chunkCaches.values()) {
+			cache.dispose();
+		}
+		for (ChunkRenderCache cache : freeCaches) {
+			cache.dispose();
+		}
+		chunkShader.dispose();
+	}
+
 	public void renderDebug() {
 		debugRenderer.setProjectionMatrix(camera.combined);
 		debugRenderer.begin(ShapeRenderer.ShapeType.Line);
@@ -57,67 +101,114 @@ public class WorldRenderer {
 	}
 
 	private void renderBlocks() {
-		for (Chunk chunk : world.chunks) {
-			for (int y = 0; y < Chunk.length; y++) {
-				for (int x = 0; x < Chunk.length; x++) {
-					GameEntity entity = chunk.getEntityAt(new Vector2(x, y));
-					if (entity != null) {
-						Vector2 worldPos = chunk.getWorldPosForPos(new Vector2(x, y));
-						if (entityCanBeeSeenAt(entity, worldPos)) {
-							batch.draw(entity.getTexture(), worldPos.x, worldPos.y, entity.width, entity.height);
-						}
-					}
+		// SpriteBatch disables blending when it ends, SpriteCache does not enable it
+		Gdx.gl.glEnable(GL20.GL_BLEND);
+		Gdx.gl.glBlendFunc(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+		int minChunkX = viewMinX >> Chunk.lengthBits;
+		int minChunkY = viewMinY >> Chunk.lengthBits;
+		int maxChunkX = viewMaxX >> Chunk.lengthBits;
+		int maxChunkY = viewMaxY >> Chunk.lengthBits;
+		for (int chunkY = minChunkY; chunkY <= maxChunkY; chunkY++) {
+			for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+				short[] tiles = snapshot.chunkTiles.get(World.getChunkKey(chunkX, chunkY));
+				if (tiles != null) {
+					getRenderCache(chunkX, chunkY, tiles).render(camera.combined);
+				}
+			}
+		}
+		evictRenderCaches();
+	}
+
+	/**
+	 * @return The render cache of the passed chunk, rebuilt if the chunk changed since it was built
+	 */
+	private ChunkRenderCache getRenderCache(int chunkX, int chunkY, short[] tiles) {
+		long key = World.getChunkKey(chunkX, chunkY);
+		ChunkRenderCache cache = chunkCaches.get(key);
+		if (cache == null) {
+			cache = freeCaches.size > 0 ? freeCaches.pop() : new ChunkRenderCache(chunkShader);
+			chunkCaches.put(key, cache);
+		}
+		if (!cache.isBuiltFrom(tiles)) {
+			cache.build(chunkX, chunkY, tiles);
+		}
+		cache.lastRenderedFrame = frame;
+		return cache;
+	}
+
+	/**
+	 * Frees the caches of chunks that have not been rendered for a while, keeping a few to be reused
+	 */
+	private void evictRenderCaches() {
+		LongMap.Values<ChunkRenderCache> caches = chunkCaches.values();
+		while (caches.hasNext()) {
+			ChunkRenderCache cache = caches.next();
+			if (frame - cache.lastRenderedFrame > CACHE_EVICT_FRAMES) {
+				caches.remove();
+				if (freeCaches.size < MAX_FREE_CACHES) {
+					freeCaches.add(cache);
+				} else {
+					cache.dispose();
 				}
 			}
 		}
 	}
 
 	private void renderDynamics() {
-		for (DynamicEntity entity : world.getDynamicEntities()) {
-			if (entityCanBeeSeenAt(entity, entity.getPos()))
-				batch.draw(entity.getTexture(), entity.getPos().x, entity.getPos().y, entity.width, entity.height);
+		for (int i = 0; i < snapshot.entityCount; i++) {
+			float x = lerp(snapshot.prevX[i], snapshot.x[i]);
+			float y = lerp(snapshot.prevY[i], snapshot.y[i]);
+			if (entityCanBeSeen(x, y, snapshot.width[i], snapshot.height[i]))
+				batch.draw(snapshot.textures[i], x, y, snapshot.width[i], snapshot.height[i]);
 		}
 	}
 
 	private void renderBlockDebug() {
-		for (Chunk chunk : world.chunks) {
-			for (int y = 0; y < Chunk.length; y++) {
-				for (int x = 0; x < Chunk.length; x++) {
-					GameEntity entity = chunk.getEntityAt(new Vector2(x, y));
-					if (entity != null) {
-						Vector2 worldPos = chunk.getWorldPosForPos(new Vector2(x, y));
-						if (entityCanBeeSeenAt(entity, worldPos)) {
-							debugRenderer.rect(worldPos.x, worldPos.y, entity.width, entity.height);
-						}
-					}
+		for (int y = viewMinY; y <= viewMaxY; y++) {
+			for (int x = viewMinX; x <= viewMaxX; x++) {
+				short[] tiles = snapshot.chunkTiles.get(World.getChunkKey(x >> Chunk.lengthBits, y >> Chunk.lengthBits));
+				if (tiles == null) continue;
+				GameEntity entity = EntityRegistry.getEntityFromID(tiles[(y & Chunk.lengthMask) * Chunk.length + (x & Chunk.lengthMask)]);
+				if (entity != null) {
+					debugRenderer.rect(x, y, entity.width, entity.height);
 				}
 			}
 		}
 	}
 
 	private void renderDynamicsDebug() {
-		for (DynamicEntity entity : world.getDynamicEntities()) {
-			if (entityCanBeeSeenAt(entity, entity.getPos())) {
-				debugRenderer.rect(entity.getPos().x, entity.getPos().y, entity.width, entity.height);
+		for (int i = 0; i < snapshot.entityCount; i++) {
+			float x = lerp(snapshot.prevX[i], snapshot.x[i]);
+			float y = lerp(snapshot.prevY[i], snapshot.y[i]);
+			if (entityCanBeSeen(x, y, snapshot.width[i], snapshot.height[i])) {
+				debugRenderer.rect(x, y, snapshot.width[i], snapshot.height[i]);
 			}
 		}
 	}
 
-	private boolean entityCanBeeSeenAt(GameEntity entity, Vector2 worldPos) {
-		Vector3 bottomLeft = camera.project(new Vector3(worldPos.x, worldPos.y, 0));
-		Vector3 topLeft = camera.project(new Vector3(worldPos.x, worldPos.y + entity.height, 0));
-		Vector3 bottomRight = camera.project(new Vector3(worldPos.x + entity.width, worldPos.y, 0));
-		Vector3 topRight = camera.project(new Vector3(worldPos.x + entity.width, worldPos.y + entity.height, 0));
+	/**
+	 * Finds the tiles covered by the camera's viewport. Only these tiles and the chunks containing them are rendered.
+	 */
+	private void updateView() {
+		float halfWidth = camera.viewportWidth * camera.zoom / 2;
+		float halfHeight = camera.viewportHeight * camera.zoom / 2;
+		viewMinX = (int) Math.floor(camera.position.x - halfWidth);
+		viewMinY = (int) Math.floor(camera.position.y - halfHeight);
+		viewMaxX = (int) Math.floor(camera.position.x + halfWidth);
+		viewMaxY = (int) Math.floor(camera.position.y + halfHeight);
+	}
 
-		return screenContainsPos(bottomLeft) || screenContainsPos(topLeft) || screenContainsPos(bottomRight) || screenContainsPos(topRight);
+	/**
+	 * @return If any part of the passed bounds is within the tiles covered by the viewport
+	 */
+	private boolean entityCanBeSeen(float x, float y, float width, float height) {
+		return x < viewMaxX + 1 && x + width > viewMinX && y < viewMaxY + 1 && y + height > viewMinY;
 	}
 
-	private boolean screenContainsPos(Vector3 pos) {
-		if (pos.x > 0 && pos.x < Gdx.graphics.getWidth()) {
-			if (pos.y > 0 && pos.y < Gdx.graphics.getHeight()) {
-				return true;
-			}
-		}
-		return false;
+	/**
+	 * @return The position between the passed positions of the previous and the current tick for this frame
+	 */
+	private float lerp(float prev, float current) {
+		return prev + (current - prev) * alpha;
 	}
 }
@@ -0,0 +1,86 @@
+package com.darichey.dungeonCrawler.render;
+
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.utils.LongMap;
+import com.darichey.dungeonCrawler.entity.base.DynamicEntity;
+import com.darichey.dungeonCrawler.entity.base.EntityStore;
+import com.darichey.dungeonCrawler.world.World;
+import com.darichey.dungeonCrawler.world.chunk.Chunk;
+
+/**
+ * Everything the {@link WorldRenderer} draws, copied from the world at the end of a tick. The renderer only reads
+ * snapshots, so the world can be updated on another thread while a frame is drawn.
+ */
+public class WorldSnapshot {
+	/** When the snapshot was taken, from {@link System#nanoTime()} **/
+	public long time;
+
+	/** Set when the snapshot is published, cleared when the renderer takes it. See {@link SnapshotBuffer} **/
+	boolean fresh;
+
+	public float playerPrevX, playerPrevY, playerX, playerY;
+
+	public int entityCount;
+	/** The entities themselves, only to be compared by identity. Their state may be changing on another thread. **/
+	public DynamicEntity[] entities = new DynamicEntity[16];
+	public Texture[] textures = new Texture[16];
+	public float[] prevX = new float[16], prevY = new float[16], x = new float[16], y = new float[16];
+	public float[] width = new float[16], height = new float[16];
+
+	/**
+	 * The tiles of every loaded chunk, keyed by {@link World#getChunkKey(int, int)}. The arrays are never changed,
+	 * a changed chunk gets a new array.
+	 */
+	public LongMap<short[]> chunkTiles = new LongMap<short[]>();
+
+	/**
+	 * Copies the state of the passed world. Must be called on the thread updating the world.
+	 */
+	public void capture(World world) {
+		playerPrevX = world.player.getPrevX();
+		playerPrevY = world.player.getPrevY();
+		playerX = world.player.getX();
+		playerY = world.player.getY();
+
+		EntityStore store = world.getEntityStore();
+		int previousCount = entityCount;
+		entityCount = store.size;
+		if (entityCount > textures.length) {
+			grow(entityCount);
+		}
+		for (int i = 0; i < entityCount; i++) {
+			textures[i] = store.entities[i].getTexture();
+		}
+		System.arraycopy(store.entities, 0, entities, 0, entityCount);
+		// Removed entities are not kept alive by the snapshot
+		for (int i = entityCount; i < previousCount; i++) {
+			entities[i] = null;
+		}
+		System.arraycopy(store.prevX, 0, prevX, 0, entityCount);
+		System.arraycopy(store.prevY, 0, prevY, 0, entityCount);
+		System.arraycopy(store.x, 0, x, 0, entityCount);
+		System.arraycopy(store.y, 0, y, 0, entityCount);
+		System.arraycopy(store.width, 0, width, 0, entityCount);
+		System.arraycopy(store.height, 0, height, 0, entityCount);
+
+		chunkTiles.clear();
+		for (Chunk chunk : world.chunks) {
+			chunkTiles.put(World.getChunkKey(chunk.getX(), chunk.getY()), chunk.getTilesSnapshot());
+		}
+		time = System.nanoTime();
+	}
+
+	private void grow(int size) {
+		int capacity = Math.max(size, textures.length * 2);
+		Texture[] grownTextures = new Texture[capacity];
+		System.arraycopy(textures, 0, grownTextures, 0, textures.length);
+		textures = grownTextures;
+		entities = new DynamicEntity[capacity];
+		prevX = new float[capacity];
+		prevY = new float[capacity];
+		x = new float[capacity];
+		y = new float[capacity];
+		width = new float[capacity];
+		height = new float[capacity];
+	}
+}
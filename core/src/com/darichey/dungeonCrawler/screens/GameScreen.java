@@ -7,14 +7,23 @@ import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.scenes.scene2d.ui.Label;
+import com.badlogic.gdx.utils.GdxRuntimeException;
 import com.darichey.dungeonCrawler.event.EventManager;
 import com.darichey.dungeonCrawler.gui.GuiHUD;
 import com.darichey.dungeonCrawler.handler.*;
 import com.darichey.dungeonCrawler.init.Entities;
 import com.darichey.dungeonCrawler.init.Items;
+import com.darichey.dungeonCrawler.physics.Box2DPhysics;
+import com.darichey.dungeonCrawler.physics.BuiltInPhysics;
+import com.darichey.dungeonCrawler.physics.PhysicsBackend;
 import com.darichey.dungeonCrawler.render.GuiRenderer;
+import com.darichey.dungeonCrawler.render.SnapshotBuffer;
 import com.darichey.dungeonCrawler.render.WorldRenderer;
+import com.darichey.dungeonCrawler.render.WorldSnapshot;
 import com.darichey.dungeonCrawler.world.World;
+import com.darichey.dungeonCrawler.world.chunk.RegionFileStorage;
+
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * Main playing screen for the game
@@ -24,25 +33,61 @@ public class GameScreen extends ScreenAdapter {
 	private WorldRenderer worldRenderer;
 	private GuiRenderer guiRenderer;
 	private Stage stage;
-	private HandlerBase movementHandler;
-	private HandlerBase collisionHandler;
+	private PhysicsBackend physics;
 	private InputHandler inputHandler;
 
+	/**
+	 * Simulation ticks per second. Movement and collision always advance by one tick, whatever the frame rate.
+	 */
+	public int tickRate = 60;
+
+	/**
+	 * Most ticks run at once to catch up. Time beyond this is dropped, so a slow tick or frame does not lead to even
+	 * more ticks next time.
+	 */
+	public int maxTicksPerFrame = 5;
+
+	/**
+	 * Time passed that has not been simulated yet, in seconds
+	 */
+	private float accumulator;
+
+	/**
+	 * Hands the state of the world to the renderer after every tick
+	 */
+	private SnapshotBuffer snapshots = new SnapshotBuffer();
+
+	/**
+	 * If the world is updated on its own thread rather than in {@link #render(float)}
+	 */
+	private final boolean threadedSimulation;
+	private Thread simulationThread;
+	private volatile boolean simulating;
+
 	public static Label.LabelStyle labelStyle = new Label.LabelStyle(new BitmapFont(), Color.WHITE);
 
 	public GameScreen() {
+		this(false, false);
+	}
+
+	/**
+	 * @param threadedSimulation If the world should be updated on its own thread, so a slow tick does not delay frames
+	 * @param box2dPhysics       If dynamic entities should be simulated by {@link Box2DPhysics} instead of {@link BuiltInPhysics}
+	 */
+	public GameScreen(boolean threadedSimulation, boolean box2dPhysics) {
+		this.threadedSimulation = threadedSimulation;
 		Entities.init();
 		Items.init();
 
-		world = new World();
-		worldRenderer = new WorldRenderer(world);
+		world = new World(new RegionFileStorage(Gdx.files.local("saves/world")));
+		worldRenderer = new WorldRenderer();
 		guiRenderer = new GuiRenderer();
-		movementHandler = new MovementHandler(world.player);
-		collisionHandler = new CollisionHandler(world);
+		physics = box2dPhysics ? new Box2DPhysics(world) : new BuiltInPhysics(world);
 		inputHandler = new InputHandler(world, worldRenderer.camera);
 		stage = new Stage();
 
 		guiRenderer.setGui(new GuiHUD(stage, world.player));
+		worldRenderer.lightRenderer.attach(world.player, new Color(1f, 0.85f, 0.6f, 1f), 12);
 
 		EventManager.register(new EventListener());
 
@@ -50,19 +95,117 @@ public class GameScreen extends ScreenAdapter {
 		multiplexer.addProcessor(inputHandler);
 		multiplexer.addProcessor(stage);
 		Gdx.input.setInputProcessor(multiplexer);
+
+		publishSnapshot();
+		if (threadedSimulation) {
+			startSimulationThread();
+		}
 	}
 
+	/**
+	 * Advances the world by one tick
+	 */
 	public void update(float delta) {
 		world.update();
-		movementHandler.update(delta);
-		collisionHandler.update(delta);
+		physics.step(delta);
 		inputHandler.update();
+		EventManager.drain();
 	}
 
 	@Override
 	public void render(float delta) {
-		update(delta);
-		worldRenderer.render();
+		inputHandler.pollInput();
+		if (threadedSimulation) {
+			WorldSnapshot snapshot = snapshots.acquire();
+			// The snapshot is the latest tick, so draw towards it over the time one tick takes
+			float alpha = Math.min(1f, (System.nanoTime() - snapshot.time) * tickRate / 1000000000f);
+			worldRenderer.render(snapshot, alpha);
+		} else {
+			float tickTime = 1f / tickRate;
+			accumulator += delta;
+			int ticks = 0;
+			while (accumulator >= tickTime && ticks < maxTicksPerFrame) {
+				update(tickTime);
+				accumulator -= tickTime;
+				ticks++;
+			}
+			if (accumulator >= tickTime) {
+				accumulator %= tickTime;
+			}
+			if (ticks > 0) {
+				publishSnapshot();
+			}
+			worldRenderer.render(snapshots.acquire(), accumulator / tickTime);
+		}
 		guiRenderer.render();
 	}
+
+	private void publishSnapshot() {
+		snapshots.getBack().capture(world);
+		snapshots.publish();
+	}
+
+	private void startSimulationThread() {
+		simulating = true;
+		simulationThread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					simulate();
+				} catch (final Throwable t) {
+					simulating = false;
+					// Rethrow on the render thread so the failure stops the game instead of freezing it
+					Gdx.app.postRunnable(new Runnable() {
+						@Override
+						public void run() {
+							throw new GdxRuntimeException("Simulation thread failed", t);
+						}
+					});
+				}
+			}
+		}, "Simulation");
+		simulationThread.setDaemon(true);
+		simulationThread.start();
+	}
+
+	/**
+	 * Runs ticks at the tick rate until the screen is disposed. Runs on the simulation thread.
+	 */
+	private void simulate() {
+		long tickNanos = 1000000000L / tickRate;
+		long nextTick = System.nanoTime();
+		while (simulating) {
+			long now = System.nanoTime();
+			if (now < nextTick) {
+				LockSupport.parkNanos(nextTick - now);
+				continue;
+			}
+			int ticks = 0;
+			while (now >= nextTick && ticks < maxTicksPerFrame) {
+				update(1f / tickRate);
+				publishSnapshot();
+				nextTick += tickNanos;
+				ticks++;
+			}
+			if (now >= nextTick) {
+				nextTick = now;
+			}
+		}
+	}
+
+	@Override
+	public void dispose() {
+		if (simulationThread != null) {
+			simulating = false;
+			try {
+				simulationThread.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		physics.dispose();
+		worldRenderer.dispose();
+		world.save();
+		world.dispose();
+	}
 }
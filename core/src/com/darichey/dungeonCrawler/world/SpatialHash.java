@@ -0,0 +1,142 @@
+package com.darichey.dungeonCrawler.world;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.LongMap;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.darichey.dungeonCrawler.entity.base.DynamicEntity;
+import com.darichey.dungeonCrawler.entity.base.EntityStore;
+import com.darichey.dungeonCrawler.world.chunk.Chunk;
+
+/**
+ * Uniform grid of dynamic entities used to find entities that may be colliding without testing every pair.
+ * Cells are the size of a {@link Chunk} and each entity is stored in every cell its bounds touch.
+ */
+public class SpatialHash {
+	/** Side length of a cell in blocks **/
+	public static final int cellSize = Chunk.length;
+
+	/** Entities in each cell, keyed by {@link World#getChunkKey(int, int)} of the cell position **/
+	private LongMap<Array<DynamicEntity>> cells = new LongMap<Array<DynamicEntity>>();
+
+	/** The cells each entity currently occupies **/
+	private ObjectMap<DynamicEntity, CellRange> ranges = new ObjectMap<DynamicEntity, CellRange>();
+
+	/** Emptied cell lists kept for reuse **/
+	private Array<Array<DynamicEntity>> freeCells = new Array<Array<DynamicEntity>>();
+
+	/**
+	 * Inserts the passed entity, or moves it to the cells its bounds now touch. Entities that have
+	 * not left their cells since the last update are not touched.
+	 *
+	 * @param entity The entity to update
+	 */
+	public void update(DynamicEntity entity) {
+		int minX = toCell(entity.getX());
+		int minY = toCell(entity.getY());
+		int maxX = toCell(entity.getX() + entity.getWidth());
+		int maxY = toCell(entity.getY() + entity.getHeight());
+
+		CellRange range = ranges.get(entity);
+		if (range == null) {
+			range = new CellRange();
+			ranges.put(entity, range);
+		} else if (range.minX == minX && range.minY == minY && range.maxX == maxX && range.maxY == maxY) {
+			return;
+		} else {
+			removeFromCells(entity, range);
+		}
+
+		range.minX = minX;
+		range.minY = minY;
+		range.maxX = maxX;
+		range.maxY = maxY;
+		for (int y = minY; y <= maxY; y++) {
+			for (int x = minX; x <= maxX; x++) {
+				long key = World.getChunkKey(x, y);
+				Array<DynamicEntity> cell = cells.get(key);
+				if (cell == null) {
+					cell = freeCells.size > 0 ? freeCells.pop() : new Array<DynamicEntity>(false, 4);
+					cells.put(key, cell);
+				}
+				cell.add(entity);
+			}
+		}
+	}
+
+	/**
+	 * Removes the passed entity from the hash
+	 *
+	 * @param entity The entity to remove
+	 */
+	public void remove(DynamicEntity entity) {
+		CellRange range = ranges.remove(entity);
+		if (range != null) {
+			removeFromCells(entity, range);
+		}
+	}
+
+	/**
+	 * Removes every entity that is no longer held by the passed store
+	 *
+	 * @param store The store of the entities to keep
+	 */
+	public void retain(EntityStore store) {
+		ObjectMap.Entries<DynamicEntity, CellRange> entries = ranges.entries();
+		while (entries.hasNext()) {
+			ObjectMap.Entry<DynamicEntity, CellRange> entry = entries.next();
+			if (!store.contains(entry.key)) {
+				removeFromCells(entry.key, entry.value);
+				entries.remove();
+			}
+		}
+	}
+
+	/**
+	 * Adds every pair of entities that share a cell to the passed array as consecutive elements. Each pair is
+	 * only added once, from the cell where both ranges begin to overlap, even if the entities share several cells.
+	 *
+	 * @param out The array to add the pairs to
+	 * @return The passed array
+	 */
+	public Array<DynamicEntity> getCandidatePairs(Array<DynamicEntity> out) {
+		for (LongMap.Entry<Array<DynamicEntity>> entry : cells.entries()) {
+			int cellX = (int) (entry.key >> 32);
+			int cellY = (int) entry.key;
+			Array<DynamicEntity> cell = entry.value;
+			for (int i = 0; i < cell.size; i++) {
+				CellRange first = ranges.get(cell.get(i));
+				for (int j = i + 1; j < cell.size; j++) {
+					CellRange second = ranges.get(cell.get(j));
+					if (Math.max(first.minX, second.minX) == cellX && Math.max(first.minY, second.minY) == cellY) {
+						out.add(cell.get(i));
+						out.add(cell.get(j));
+					}
+				}
+			}
+		}
+		return out;
+	}
+
+	private void removeFromCells(DynamicEntity entity, CellRange range) {
+		for (int y = range.minY; y <= range.maxY; y++) {
+			for (int x = range.minX; x <= range.maxX; x++) {
+				long key = World.getChunkKey(x, y);
+				Array<DynamicEntity> cell = cells.get(key);
+				if (cell == null) continue;
+				cell.removeValue(entity, true);
+				if (cell.size == 0) {
+					cells.remove(key);
+					freeCells.add(cell);
+				}
+			}
+		}
+	}
+
+	private static int toCell(float pos) {
+		return (int) Math.floor(pos / cellSize);
+	}
+
+	private static class CellRange {
+		int minX, minY, maxX, maxY;
+	}
+}
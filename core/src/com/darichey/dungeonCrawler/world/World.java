@@ -1,96 +1,433 @@
 package com.darichey.dungeonCrawler.world;
 
-import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.LongMap;
 import com.darichey.dungeonCrawler.entity.base.DynamicEntity;
+import com.darichey.dungeonCrawler.entity.base.EntityStore;
 import com.darichey.dungeonCrawler.entity.base.GameEntity;
 import com.darichey.dungeonCrawler.entity.living.EntityPlayer;
 import com.darichey.dungeonCrawler.init.Items;
 import com.darichey.dungeonCrawler.item.stack.ItemStack;
 import com.darichey.dungeonCrawler.world.chunk.Chunk;
+import com.darichey.dungeonCrawler.world.chunk.ChunkGenerationPool;
+import com.darichey.dungeonCrawler.world.chunk.ChunkGenerator;
+import com.darichey.dungeonCrawler.world.chunk.ChunkStorage;
+import com.darichey.dungeonCrawler.world.chunk.MemoryChunkStorage;
+import com.darichey.dungeonCrawler.world.path.PathfindingService;
 
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 public class World {
-	public static final int height = 128;
-	public static final int width = 128;
-
 	public EntityPlayer player;
 
 	/**
-	 * List of chunks in the world. Chunks should add themselves to this on construction.
+	 * Chunks within this many chunks of the player's chunk are loaded or generated.
+	 */
+	public int loadRadius = 3;
+
+	/**
+	 * Chunks further than this many chunks from the player's chunk are unloaded. Larger than {@link #loadRadius} so
+	 * walking back and forth over a chunk border does not keep loading and unloading the same chunks.
+	 * <p>
+	 * The pathfinder's search window is sized from this when the world is created, so paths between chunks loaded
+	 * with a larger radius set afterwards may not be found.
+	 */
+	public int unloadRadius = 5;
+
+	/**
+	 * Most chunks kept loaded at once. The furthest chunks outside {@link #loadRadius} are unloaded first.
+	 */
+	public int maxLoadedChunks = 100;
+
+	/**
+	 * Most generated chunks added to the world per update. Spreads the cost of adding chunks over several frames
+	 * when many finish at once.
+	 */
+	public int maxChunksPublishedPerUpdate = 4;
+
+	/**
+	 * List of chunks in the world. Chunks add themselves to this through {@link #addChunk(Chunk)} on construction.
 	 */
 	public ArrayList<Chunk> chunks = new ArrayList<Chunk>();
 
 	/**
-	 * List of dynamic entities in the world. Entities should add themselves to this on construction.
+	 * Index of the chunks in the world, keyed by {@link #getChunkKey(int, int)}.
+	 */
+	private LongMap<Chunk> chunkIndex = new LongMap<Chunk>();
+
+	/**
+	 * State of the dynamic entities in the world. Entities add themselves through {@link #addDynamicEntity(DynamicEntity)} on construction.
+	 */
+	private EntityStore entityStore = new EntityStore(64);
+
+	/**
+	 * Where unloaded chunks are saved
+	 */
+	private ChunkStorage chunkStorage;
+
+	private ChunkGenerator chunkGenerator = new ChunkGenerator();
+	private ChunkGenerationPool generationPool = new ChunkGenerationPool(chunkGenerator, Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+
+	/**
+	 * Chunks being generated in the background, keyed by {@link #getChunkKey(int, int)}
+	 */
+	private LongMap<ChunkGenerationPool.Request> pendingChunks = new LongMap<ChunkGenerationPool.Request>();
+
+	/**
+	 * Tile arrays kept for reuse by chunk loading and generation
+	 */
+	private Array<short[]> freeTiles = new Array<short[]>();
+	private Array<ChunkGenerationPool.Request> waitingRequests = new Array<ChunkGenerationPool.Request>();
+
+	/**
+	 * Finds paths for entities, searched at the end of each update. Loaded chunks can be up to 2 * {@link #unloadRadius}
+	 * chunks apart, so the window around the start of a search reaches that far in every direction. The window is sized
+	 * from the radius when the world is created and does not grow if the radius is raised later.
+	 */
+	private PathfindingService pathfinder = new PathfindingService(this, 4 * unloadRadius + 1);
+
+	/**
+	 * Time the pathfinder may search for in each update, in nanoseconds. Searches that take longer carry on in the next update.
+	 */
+	public long pathfindingTimePerUpdate = 1000000;
+
+	/**
+	 * Tasks from other threads to run at the start of the next update
+	 */
+	private ConcurrentLinkedQueue<Runnable> tasks = new ConcurrentLinkedQueue<Runnable>();
+
+	/**
+	 * The chunk the player was in when chunks were last loaded
+	 */
+	private int playerChunkX, playerChunkY;
+	private boolean chunksLoaded;
+
+	/**
+	 * Reused when sorting chunks to unload
 	 */
-	private ArrayList<DynamicEntity> dynamicEntities = new ArrayList<DynamicEntity>();
+	private Array<Chunk> unloadCandidates = new Array<Chunk>();
+	private Comparator<Chunk> furthestFirst = new Comparator<Chunk>() {
+		@Override
+		public int compare(Chunk first, Chunk second) {
+			return getDistanceToPlayer(second) - getDistanceToPlayer(first);
+		}
+	};
 
 	public World() {
+		this(new MemoryChunkStorage());
+	}
+
+	public World(ChunkStorage chunkStorage) {
+		this.chunkStorage = chunkStorage;
 		player = new EntityPlayer(this, new Vector2(13, 14));
 		player.getInventory().setStackInSlot(0, new ItemStack(Items.stone, 2));
 		player.getInventory().setStackInSlot(10, new ItemStack(Items.cookie, 11));
 		player.getInventory().setStackInSlot(49, new ItemStack(Items.cookie, 50));
-		generate();
+		updateLoadedChunks();
 	}
 
-	private void generate() {
-		for (int y = 0; y < height / Chunk.length; y++) {
-			for (int x = 0; x < width / Chunk.length; x++) {
-				Chunk chunk = new Chunk(this, new Vector2(x, y));
-				chunk.generate();
-			}
+	/**
+	 * Called once per tick, before any entity moves
+	 */
+	public void update() {
+		Runnable task;
+		while ((task = tasks.poll()) != null) {
+			task.run();
 		}
+		System.arraycopy(entityStore.x, 0, entityStore.prevX, 0, entityStore.size);
+		System.arraycopy(entityStore.y, 0, entityStore.prevY, 0, entityStore.size);
+		updateLoadedChunks();
+		publishGeneratedChunks();
+		pathfinder.update(pathfindingTimePerUpdate);
 	}
 
-	public void update() {
+	/**
+	 * Runs the passed task on the thread updating the world, at the start of the next update. Anything that changes
+	 * the world from another thread, such as input, has to go through this.
+	 */
+	public void post(Runnable task) {
+		tasks.add(task);
+	}
 
+	/**
+	 * Saves every loaded chunk that was changed since it was generated or loaded
+	 */
+	public void save() {
+		for (Chunk chunk : chunks) {
+			if (chunk.isModified()) {
+				chunkStorage.save(chunk);
+				chunk.markSaved();
+			}
+		}
+		chunkStorage.flush();
 	}
 
-	public GameEntity getEntityAt(Vector2 pos) {
-		Chunk chunk = getChunkFromWorldPos(pos);
-		if (chunk == null) return null;
-		GameEntity entity = chunk.getEntityAt(chunk.getChunkPosForPos(pos));
-		if (entity == null) {
-			for (DynamicEntity dynamicEntity : getDynamicEntities()) {
-				Rectangle bounds = dynamicEntity.getBounds();
-				if (bounds.contains(pos.x, pos.y)) {
-					return dynamicEntity;
+	/**
+	 * Stops generating chunks in the background and closes the chunk storage. Does not save.
+	 */
+	public void dispose() {
+		generationPool.dispose();
+		chunkStorage.dispose();
+	}
+
+	/**
+	 * Loads the chunks around the player and unloads the ones too far away. Does nothing until the player enters
+	 * another chunk. Chunks around the player's starting position are generated immediately, later ones in the
+	 * background.
+	 */
+	private void updateLoadedChunks() {
+		int chunkX = (int) Math.floor(player.getX()) >> Chunk.lengthBits;
+		int chunkY = (int) Math.floor(player.getY()) >> Chunk.lengthBits;
+		if (chunksLoaded && chunkX == playerChunkX && chunkY == playerChunkY) return;
+		boolean generateNow = !chunksLoaded;
+		playerChunkX = chunkX;
+		playerChunkY = chunkY;
+		chunksLoaded = true;
+
+		updatePendingChunks();
+
+		for (int y = chunkY - loadRadius; y <= chunkY + loadRadius; y++) {
+			for (int x = chunkX - loadRadius; x <= chunkX + loadRadius; x++) {
+				if (getChunk(x, y) == null && !pendingChunks.containsKey(getChunkKey(x, y))) {
+					loadChunk(x, y, generateNow);
+				}
+			}
+		}
+
+		for (int i = chunks.size() - 1; i >= 0; i--) {
+			if (getDistanceToPlayer(chunks.get(i)) > unloadRadius) {
+				unloadChunk(chunks.get(i));
+			}
+		}
+
+		if (chunks.size() > maxLoadedChunks) {
+			for (Chunk chunk : chunks) {
+				if (getDistanceToPlayer(chunk) > loadRadius) {
+					unloadCandidates.add(chunk);
 				}
 			}
+			unloadCandidates.sort(furthestFirst);
+			for (int i = 0; i < unloadCandidates.size && chunks.size() > maxLoadedChunks; i++) {
+				unloadChunk(unloadCandidates.get(i));
+			}
+			unloadCandidates.clear();
 		}
-		return entity;
 	}
 
-	public void setEntityAt(GameEntity entity, Vector2 pos) {
-		Chunk chunk = getChunkFromWorldPos(pos);
-		if (chunk == null) return;
-		chunk.setEntityAt(entity, chunk.getChunkPosForPos(pos));
+	/**
+	 * Cancels the chunks being generated that are now out of range, and reorders the rest nearest first
+	 */
+	private void updatePendingChunks() {
+		LongMap.Values<ChunkGenerationPool.Request> pending = pendingChunks.values();
+		while (pending.hasNext()) {
+			ChunkGenerationPool.Request request = pending.next();
+			if (getDistanceToPlayer(request.x, request.y) > unloadRadius) {
+				request.canceled = true;
+				pending.remove();
+			}
+		}
+
+		generationPool.removeWaiting(waitingRequests);
+		for (ChunkGenerationPool.Request request : waitingRequests) {
+			if (request.canceled) {
+				freeTiles.add(request.tiles);
+			} else {
+				request.priority = getDistanceToPlayer(request.x, request.y);
+				generationPool.submit(request);
+			}
+		}
+		waitingRequests.clear();
 	}
 
-	public ArrayList<DynamicEntity> getDynamicEntities() {
-		return dynamicEntities;
+	/**
+	 * Creates the chunk at the passed position if it was saved, otherwise generates it
+	 *
+	 * @param generateNow If the chunk should be generated on this thread rather than in the background
+	 */
+	private void loadChunk(int chunkX, int chunkY, boolean generateNow) {
+		short[] tiles = freeTiles.size > 0 ? freeTiles.pop() : new short[Chunk.length * Chunk.length];
+		if (chunkStorage.load(chunkX, chunkY, tiles)) {
+			addChunk(chunkX, chunkY, tiles);
+		} else if (generateNow) {
+			chunkGenerator.generate(chunkX, chunkY, tiles);
+			addChunk(chunkX, chunkY, tiles);
+		} else {
+			ChunkGenerationPool.Request request = new ChunkGenerationPool.Request(chunkX, chunkY, tiles, getDistanceToPlayer(chunkX, chunkY));
+			pendingChunks.put(getChunkKey(chunkX, chunkY), request);
+			generationPool.submit(request);
+		}
 	}
 
-	public ArrayList<Vector2> getBlockPositions() {
-		ArrayList<Vector2> list = new ArrayList<Vector2>();
-		for (Chunk chunk : chunks) {
-			ArrayList<Vector2> chunkPoss = chunk.getBlockPositions();
-			for (Vector2 blockPos : chunkPoss) {
-				list.add(chunk.getWorldPosForPos(blockPos));
+	/**
+	 * Adds the chunks finished in the background, up to {@link #maxChunksPublishedPerUpdate}
+	 */
+	private void publishGeneratedChunks() {
+		ChunkGenerationPool.Request request;
+		int published = 0;
+		while (published < maxChunksPublishedPerUpdate && (request = generationPool.poll()) != null) {
+			if (!request.canceled) {
+				pendingChunks.remove(getChunkKey(request.x, request.y));
+				addChunk(request.x, request.y, request.tiles);
+				published++;
+			} else {
+				freeTiles.add(request.tiles);
 			}
 		}
-		return list;
 	}
 
-	public Chunk getChunkFromWorldPos(Vector2 worldPos) {
-		Vector2 chunkPos = new Vector2((float) (Math.floor(worldPos.x / Chunk.length)), (float) (Math.floor(worldPos.y / Chunk.length)));
-		for (Chunk chunk : chunks) {
-			if (chunk.getPos().equals(chunkPos)) {
-				return chunk;
+	/**
+	 * Creates a chunk from the passed tiles, which are then kept for reuse
+	 */
+	private void addChunk(int chunkX, int chunkY, short[] tiles) {
+		Chunk chunk = new Chunk(this, new Vector2(chunkX, chunkY));
+		chunk.setTiles(tiles);
+		chunk.markSaved();
+		freeTiles.add(tiles);
+	}
+
+	/**
+	 * Removes the passed chunk from the world, saving it first if it was changed since it was generated or loaded
+	 */
+	private void unloadChunk(Chunk chunk) {
+		if (chunk.isModified()) {
+			chunkStorage.save(chunk);
+			chunk.markSaved();
+		}
+		chunkIndex.remove(getChunkKey(chunk.getX(), chunk.getY()));
+		chunks.remove(chunk);
+	}
+
+	/**
+	 * @return The distance in chunks between the passed chunk and the player's chunk, along the furthest axis
+	 */
+	private int getDistanceToPlayer(Chunk chunk) {
+		return getDistanceToPlayer(chunk.getX(), chunk.getY());
+	}
+
+	private int getDistanceToPlayer(int chunkX, int chunkY) {
+		return Math.max(Math.abs(chunkX - playerChunkX), Math.abs(chunkY - playerChunkY));
+	}
+
+	public ChunkStorage getChunkStorage() {
+		return this.chunkStorage;
+	}
+
+	public GameEntity getEntityAt(Vector2 pos) {
+		GameEntity entity = getTileEntityAt((int) Math.floor(pos.x), (int) Math.floor(pos.y));
+		return entity == null ? getDynamicEntityAt(pos.x, pos.y) : entity;
+	}
+
+	/**
+	 * @param x X position of the tile in the world
+	 * @param y Y position of the tile in the world
+	 * @return The entity in the tile, or a dynamic entity containing the tile's corner if the tile is empty
+	 */
+	public GameEntity getEntityAt(int x, int y) {
+		GameEntity entity = getTileEntityAt(x, y);
+		return entity == null ? getDynamicEntityAt(x, y) : entity;
+	}
+
+	private DynamicEntity getDynamicEntityAt(float x, float y) {
+		EntityStore store = entityStore;
+		for (int i = 0; i < store.size; i++) {
+			if (x >= store.x[i] && x <= store.x[i] + store.width[i] && y >= store.y[i] && y <= store.y[i] + store.height[i]) {
+				return store.entities[i];
 			}
 		}
 		return null;
 	}
+
+	public void setEntityAt(GameEntity entity, Vector2 pos) {
+		setEntityAt(entity, (int) Math.floor(pos.x), (int) Math.floor(pos.y));
+	}
+
+	/**
+	 * @param x X position of the tile in the world
+	 * @param y Y position of the tile in the world
+	 */
+	public void setEntityAt(GameEntity entity, int x, int y) {
+		Chunk chunk = getChunk(x >> Chunk.lengthBits, y >> Chunk.lengthBits);
+		if (chunk == null) return;
+		chunk.setEntityAt(entity, x & Chunk.lengthMask, y & Chunk.lengthMask);
+	}
+
+	/**
+	 * Gets the entity stored in the tile map at the passed tile, ignoring dynamic entities
+	 *
+	 * @param x X position of the tile in the world
+	 * @param y Y position of the tile in the world
+	 * @return The entity in the tile, or null if the tile is empty or its chunk does not exist
+	 */
+	public GameEntity getTileEntityAt(int x, int y) {
+		Chunk chunk = getChunk(x >> Chunk.lengthBits, y >> Chunk.lengthBits);
+		if (chunk == null) return null;
+		return chunk.getEntityAt(x & Chunk.lengthMask, y & Chunk.lengthMask);
+	}
+
+	/**
+	 * @param x X position of the tile in the world
+	 * @param y Y position of the tile in the world
+	 * @return If the tile holds a block. Tiles in chunks that do not exist are not solid.
+	 */
+	public boolean isSolidAt(int x, int y) {
+		Chunk chunk = getChunk(x >> Chunk.lengthBits, y >> Chunk.lengthBits);
+		return chunk != null && chunk.isSolid(x & Chunk.lengthMask, y & Chunk.lengthMask);
+	}
+
+	/**
+	 * @return The state of every dynamic entity in the world
+	 */
+	public EntityStore getEntityStore() {
+		return entityStore;
+	}
+
+	public PathfindingService getPathfinder() {
+		return pathfinder;
+	}
+
+	public void addDynamicEntity(DynamicEntity entity) {
+		entityStore.add(entity);
+	}
+
+	public void removeDynamicEntity(DynamicEntity entity) {
+		entityStore.remove(entity);
+	}
+
+	public Chunk getChunkFromWorldPos(Vector2 worldPos) {
+		return getChunk((int) Math.floor(worldPos.x) >> Chunk.lengthBits, (int) Math.floor(worldPos.y) >> Chunk.lengthBits);
+	}
+
+	/**
+	 * @param chunkX X position of the chunk, in chunks
+	 * @param chunkY Y position of the chunk, in chunks
+	 * @return The chunk at the passed chunk position, or null if there is none
+	 */
+	public Chunk getChunk(int chunkX, int chunkY) {
+		return chunkIndex.get(getChunkKey(chunkX, chunkY));
+	}
+
+	/**
+	 * Adds the passed chunk to the world. Called by chunks on construction.
+	 *
+	 * @param chunk The chunk to add
+	 * @throws IllegalArgumentException If the world already has a chunk at the same position
+	 */
+	public void addChunk(Chunk chunk) throws IllegalArgumentException {
+		long key = getChunkKey(chunk.getX(), chunk.getY());
+		if (chunkIndex.containsKey(key)) {
+			throw new IllegalArgumentException("Two chunks in the same world may not share the same position.");
+		}
+		chunkIndex.put(key, chunk);
+		chunks.add(chunk);
+	}
+
+	/**
+	 * Packs a chunk position into a single long used to index chunks.
+	 */
+	public static long getChunkKey(int chunkX, int chunkY) {
+		return ((long) chunkX << 32) | (chunkY & 0xFFFFFFFFL);
+	}
 }
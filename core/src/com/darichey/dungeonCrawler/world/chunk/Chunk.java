@@ -1,14 +1,10 @@
 package com.darichey.dungeonCrawler.world.chunk;
 
 import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.IntArray;
 import com.darichey.dungeonCrawler.entity.base.GameEntity;
-import com.darichey.dungeonCrawler.entity.block.BlockBase;
-import com.darichey.dungeonCrawler.init.Entities;
-import com.darichey.dungeonCrawler.init.register.EntityRegistry;
 import com.darichey.dungeonCrawler.world.World;
 
-import java.util.ArrayList;
-
 /**
  * The world is made up of Chunks. Each chunk uses an {@link com.darichey.dungeonCrawler.world.chunk.EntityTileMap} to store information
  * about the blocks within the chunk. Chunks are square with their length decided by "length"
@@ -20,7 +16,30 @@ public class Chunk {
 	private EntityTileMap entityTileMap = new EntityTileMap(length, length);
 	// Side length of the chunk in blocks.
 	public static final int length = 16;
+	// Length is a power of two, so world tile positions are converted to chunk positions with shifts and masks.
+	public static final int lengthBits = 4;
+	public static final int lengthMask = length - 1;
 	private Vector2 pos = new Vector2();
+	// Integer copy of pos
+	private int x, y;
+	/**
+	 * Incremented whenever a tile in this chunk changes, so anything built from the tiles knows when to rebuild
+	 */
+	private int revision;
+	/**
+	 * The revision when the chunk was last generated, loaded or saved
+	 */
+	private int savedRevision;
+	/**
+	 * Copy of the tiles returned by {@link #getTilesSnapshot()}, and the revision it was copied at
+	 */
+	private short[] tilesSnapshot;
+	private int snapshotRevision;
+	/**
+	 * Merged rectangles covering the solid tiles, returned by {@link #getCollisionShapes()}, and the revision they were built at
+	 */
+	private IntArray collisionShapes = new IntArray();
+	private int collisionShapesRevision = -1;
 	/**
 	 * The world this chunk belongs to. *
 	 */
@@ -29,20 +48,30 @@ public class Chunk {
 	public Chunk(World world, Vector2 pos) throws IllegalArgumentException {
 		this.world = world;
 		this.pos = pos;
+		this.x = (int) pos.x;
+		this.y = (int) pos.y;
 
-		for (Chunk chunk : world.chunks) {
-			if (chunk.getPos().equals(this.getPos())) {
-				throw new IllegalArgumentException("Two chunks in the same world may not share the same position.");
-			}
-		}
-
-		this.world.chunks.add(this);
+		this.world.addChunk(this);
 	}
 
 	public Vector2 getPos() {
 		return this.pos;
 	}
 
+	/**
+	 * @return X position of the chunk, in chunks
+	 */
+	public int getX() {
+		return this.x;
+	}
+
+	/**
+	 * @return Y position of the chunk, in chunks
+	 */
+	public int getY() {
+		return this.y;
+	}
+
 	public World getWorld() {
 		return this.world;
 	}
@@ -51,36 +80,109 @@ public class Chunk {
 		return entityTileMap.getEntityAt(pos);
 	}
 
+	/**
+	 * @param x X position within the chunk
+	 * @param y Y position within the chunk
+	 */
+	public GameEntity getEntityAt(int x, int y) {
+		return entityTileMap.getEntityAt(x, y);
+	}
+
 	public void setEntityAt(GameEntity entity, Vector2 pos) {
-		entityTileMap.putEntityAt(entity, pos);
+		setEntityAt(entity, (int) Math.floor(pos.x), (int) Math.floor(pos.y));
 	}
 
-	public ArrayList<Vector2> getBlockPositions() {
-		ArrayList<Vector2> pos = new ArrayList<Vector2>();
-		for (GameEntity entity : EntityRegistry.getRegisteredEntities()) {
-			if (entity instanceof BlockBase) {
-				pos.addAll(entityTileMap.getPositionsForEntity(entity));
-			}
-		}
-		return pos;
+	/**
+	 * @param x X position within the chunk
+	 * @param y Y position within the chunk
+	 */
+	public void setEntityAt(GameEntity entity, int x, int y) {
+		entityTileMap.putEntityAt(entity, x, y);
+		revision++;
 	}
 
-	public void generate() {
-		for (int x = 0; x < length; x++) {
-			setEntityAt(Entities.stone, new Vector2(x, 0));
-		}
+	public int getRevision() {
+		return this.revision;
+	}
 
-		for (int x = 0; x < length; x++) {
-			setEntityAt(Entities.stone, new Vector2(x, length - 1));
-		}
+	/**
+	 * @return If the tiles changed since the chunk was last generated, loaded or saved
+	 */
+	public boolean isModified() {
+		return this.revision != this.savedRevision;
+	}
 
-		for (int y = 1; y < length - 1; y++) {
-			setEntityAt(Entities.stone, new Vector2(0, y));
+	/**
+	 * Marks the current tiles as the ones that can be regenerated or loaded again
+	 */
+	public void markSaved() {
+		this.savedRevision = this.revision;
+	}
+
+	/**
+	 * Copies the entity ID of every tile into the passed array, row by row
+	 */
+	public void copyTilesTo(short[] ids) {
+		entityTileMap.copyTo(ids);
+	}
+
+	/**
+	 * Replaces every tile with the entity IDs in the passed array, in the order written by {@link #copyTilesTo(short[])}
+	 */
+	public void setTiles(short[] ids) {
+		entityTileMap.setAll(ids);
+		revision++;
+	}
+
+	/**
+	 * Gets a copy of the entity ID of every tile, row by row. The copy is never changed, so it can be read from any
+	 * thread once handed over. A new copy is made only when the tiles changed since the last call.
+	 */
+	public short[] getTilesSnapshot() {
+		if (tilesSnapshot == null || snapshotRevision != revision) {
+			tilesSnapshot = new short[length * length];
+			copyTilesTo(tilesSnapshot);
+			snapshotRevision = revision;
 		}
+		return tilesSnapshot;
+	}
+
+	/**
+	 * @param x X position within the chunk
+	 * @param y Y position within the chunk
+	 * @return If the tile holds a {@link com.darichey.dungeonCrawler.entity.block.BlockBase}
+	 */
+	public boolean isSolid(int x, int y) {
+		return entityTileMap.isSolid(x, y);
+	}
+
+	/**
+	 * @return Number of tiles holding a block
+	 */
+	public int getSolidCount() {
+		return entityTileMap.getSolidCount();
+	}
 
-		for (int y = 1; y < length - 1; y++) {
-			setEntityAt(Entities.stone, new Vector2(length - 1, y));
+	/**
+	 * @return Number of tiles holding the passed entity
+	 */
+	public int getEntityCount(GameEntity entity) {
+		return entityTileMap.getCount(entity);
+	}
+
+	/**
+	 * Gets rectangles that together cover exactly the solid tiles, merged so a straight wall is one rectangle instead
+	 * of one per tile. They are only rebuilt when the tiles changed since the last call.
+	 *
+	 * @return The rectangles as x, y, width and height in tiles within the chunk. Must not be modified.
+	 */
+	public IntArray getCollisionShapes() {
+		if (collisionShapesRevision != revision) {
+			collisionShapes.clear();
+			entityTileMap.getSolidRectangles(collisionShapes);
+			collisionShapesRevision = revision;
 		}
+		return collisionShapes;
 	}
 
 	/**
@@ -91,6 +193,22 @@ public class Chunk {
 		return new Vector2((getPos().x * length) + chunkPos.x, (getPos().y * length) + chunkPos.y);
 	}
 
+	/**
+	 * @param x X position within the chunk
+	 * @return World X position that corresponds with passed chunk X position
+	 */
+	public int getWorldX(int x) {
+		return (this.x << lengthBits) + x;
+	}
+
+	/**
+	 * @param y Y position within the chunk
+	 * @return World Y position that corresponds with passed chunk Y position
+	 */
+	public int getWorldY(int y) {
+		return (this.y << lengthBits) + y;
+	}
+
 	/**
 	 * @param worldPos World position
 	 * @return Position within the chunk that corresponds with passed world pos
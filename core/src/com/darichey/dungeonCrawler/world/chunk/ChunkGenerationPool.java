@@ -0,0 +1,118 @@
+package com.darichey.dungeonCrawler.world.chunk;
+
+import com.badlogic.gdx.utils.Array;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.PriorityBlockingQueue;
+
+/**
+ * Worker threads that generate chunk tiles in the background. Requests are taken nearest first, and finished
+ * requests are handed back through {@link #poll()} to be turned into chunks on the main thread.
+ */
+public class ChunkGenerationPool {
+	private final ChunkGenerator generator;
+	private final PriorityBlockingQueue<Request> waiting = new PriorityBlockingQueue<Request>();
+	private final ConcurrentLinkedQueue<Request> finished = new ConcurrentLinkedQueue<Request>();
+	private final Thread[] workers;
+
+	/**
+	 * @param generator The generator to run. Must be safe to use from several threads at once.
+	 * @param threads   Number of worker threads
+	 */
+	public ChunkGenerationPool(ChunkGenerator generator, int threads) {
+		this.generator = generator;
+		this.workers = new Thread[threads];
+		for (int i = 0; i < threads; i++) {
+			workers[i] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					work();
+				}
+			}, "Chunk generator " + i);
+			workers[i].setDaemon(true);
+			workers[i].setPriority(Thread.NORM_PRIORITY - 1);
+			workers[i].start();
+		}
+	}
+
+	private void work() {
+		try {
+			while (true) {
+				Request request = waiting.take();
+				if (!request.canceled) {
+					generator.generate(request.x, request.y, request.tiles);
+				}
+				// Canceled requests are still handed back so the caller gets the tile array back
+				finished.add(request);
+			}
+		} catch (InterruptedException e) {
+			// Disposed
+		}
+	}
+
+	/**
+	 * Queues the passed request. Requests with a lower priority value are generated first.
+	 */
+	public void submit(Request request) {
+		waiting.add(request);
+	}
+
+	/**
+	 * Moves every request that has not been started yet to the passed array, so it can be canceled or submitted
+	 * again with a new priority.
+	 */
+	public void removeWaiting(Array<Request> out) {
+		Request request;
+		while ((request = waiting.poll()) != null) {
+			out.add(request);
+		}
+	}
+
+	/**
+	 * @return A finished request, or null if there are none. Requests canceled after being submitted are returned
+	 * too and should be ignored.
+	 */
+	public Request poll() {
+		return finished.poll();
+	}
+
+	/**
+	 * Stops the worker threads. Requests still waiting are never finished.
+	 */
+	public void dispose() {
+		for (Thread worker : workers) {
+			worker.interrupt();
+		}
+	}
+
+	/**
+	 * A chunk to generate. Only {@link #canceled} may be changed while the request is submitted.
+	 */
+	public static class Request implements Comparable<Request> {
+		public final int x, y;
+		/**
+		 * The array the tiles are generated into
+		 */
+		public final short[] tiles;
+		/**
+		 * Lower is generated first
+		 */
+		public int priority;
+		/**
+		 * Set by the main thread when the chunk is no longer needed
+		 */
+		public volatile boolean canceled;
+
+		public Request(int x, int y, short[] tiles, int priority) {
+			this.x = x;
+			this.y = y;
+			this.tiles = tiles;
+			this.priority = priority;
+		}
+
+		@Override
+		public int compareTo(Request other) {
+			return priority < other.priority ? -1 : (priority == other.priority ? 0 : 1);
+		}
+	}
+}
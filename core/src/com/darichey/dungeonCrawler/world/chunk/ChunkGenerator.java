@@ -0,0 +1,34 @@
+package com.darichey.dungeonCrawler.world.chunk;
+
+import com.darichey.dungeonCrawler.init.Entities;
+import com.darichey.dungeonCrawler.init.register.EntityRegistry;
+
+/**
+ * Generates the tiles of new chunks. Writes entity IDs into a detached array rather than a {@link Chunk}, so
+ * generation can run on any thread.
+ */
+public class ChunkGenerator {
+	private final short stoneID;
+
+	/**
+	 * Must be created after the entity registry is frozen.
+	 */
+	public ChunkGenerator() {
+		this.stoneID = (short) EntityRegistry.getIDForEntity(Entities.stone).intValue();
+	}
+
+	/**
+	 * @param chunkX X position of the chunk, in chunks
+	 * @param chunkY Y position of the chunk, in chunks
+	 * @param tiles  The array to write the entity IDs to, row by row as read by {@link Chunk#setTiles(short[])}
+	 */
+	public void generate(int chunkX, int chunkY, short[] tiles) {
+		int length = Chunk.length;
+		for (int y = 0; y < length; y++) {
+			for (int x = 0; x < length; x++) {
+				boolean wall = x == 0 || y == 0 || x == length - 1 || y == length - 1;
+				tiles[y * length + x] = wall ? stoneID : 0;
+			}
+		}
+	}
+}
@@ -0,0 +1,30 @@
+package com.darichey.dungeonCrawler.world.chunk;
+
+import com.badlogic.gdx.utils.Disposable;
+
+/**
+ * Keeps the tiles of chunks that were unloaded so they can be restored when the chunk is loaded again
+ */
+public interface ChunkStorage extends Disposable {
+	/**
+	 * Copies the saved tiles of a chunk into the passed array
+	 *
+	 * @param chunkX X position of the chunk, in chunks
+	 * @param chunkY Y position of the chunk, in chunks
+	 * @param tiles  The array to copy the entity IDs to, row by row as read by {@link Chunk#setTiles(short[])}
+	 * @return If the chunk had been saved. Chunks that were never saved have to be generated.
+	 */
+	boolean load(int chunkX, int chunkY, short[] tiles);
+
+	/**
+	 * Saves the tiles of the passed chunk, replacing any earlier save of the same chunk
+	 *
+	 * @param chunk The chunk to save
+	 */
+	void save(Chunk chunk);
+
+	/**
+	 * Makes sure every saved chunk is written out, for storage that writes lazily
+	 */
+	void flush();
+}
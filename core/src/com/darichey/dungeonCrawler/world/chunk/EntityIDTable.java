@@ -0,0 +1,108 @@
+package com.darichey.dungeonCrawler.world.chunk;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectIntMap;
+import com.darichey.dungeonCrawler.entity.base.GameEntity;
+import com.darichey.dungeonCrawler.init.register.EntityRegistry;
+
+/**
+ * The entity IDs used by a saved world, stored as the name of each entity. IDs are assigned by registration order, so
+ * the IDs in saved chunks have to be translated whenever entities are registered in a different order, added or
+ * removed. Entities registered since the world was saved get the next unused saved IDs.
+ * <p>
+ * The table file has the name of the entity with saved ID n on line n.
+ */
+public class EntityIDTable {
+	private FileHandle file;
+
+	/**
+	 * Entity names indexed by saved ID. Index 0 is always null, the empty tile.
+	 */
+	private Array<String> names = new Array<String>();
+	private boolean changed;
+
+	private short[] savedToCurrent;
+	private short[] currentToSaved;
+	private boolean identity;
+
+	/**
+	 * Reads the table from the passed file if it exists. Must be created after the entity registry is frozen.
+	 */
+	public EntityIDTable(FileHandle file) {
+		this.file = file;
+		names.add(null);
+		if (file.exists()) {
+			for (String line : file.readString("UTF-8").split("\n")) {
+				if (!line.isEmpty()) names.add(line);
+			}
+		} else {
+			changed = true;
+		}
+
+		ObjectIntMap<String> savedIDs = new ObjectIntMap<String>();
+		for (int id = 1; id < names.size; id++) {
+			savedIDs.put(names.get(id), id);
+		}
+		for (GameEntity entity : EntityRegistry.getRegisteredEntities()) {
+			if (!savedIDs.containsKey(entity.getName())) {
+				savedIDs.put(entity.getName(), names.size);
+				names.add(entity.getName());
+				changed = true;
+			}
+		}
+
+		savedToCurrent = new short[names.size];
+		currentToSaved = new short[EntityRegistry.getRegisteredEntities().size() + 1];
+		identity = true;
+		for (int id = 1; id < names.size; id++) {
+			// Entities that are no longer registered become empty tiles
+			GameEntity entity = EntityRegistry.getEntityFromName(names.get(id));
+			if (entity != null) {
+				int currentID = EntityRegistry.getIDForEntity(entity);
+				savedToCurrent[id] = (short) currentID;
+				currentToSaved[currentID] = (short) id;
+			}
+			identity &= savedToCurrent[id] == id;
+		}
+	}
+
+	/**
+	 * @return If every saved ID is the same as the current ID, in which case no IDs need to be translated
+	 */
+	public boolean isIdentity() {
+		return identity;
+	}
+
+	/**
+	 * Translates the passed saved IDs to current IDs in place
+	 */
+	public void toCurrent(short[] ids, int count) {
+		for (int i = 0; i < count; i++) {
+			int id = ids[i];
+			ids[i] = id > 0 && id < savedToCurrent.length ? savedToCurrent[id] : 0;
+		}
+	}
+
+	/**
+	 * Translates the passed current IDs to saved IDs in place
+	 */
+	public void toSaved(short[] ids, int count) {
+		for (int i = 0; i < count; i++) {
+			ids[i] = currentToSaved[ids[i]];
+		}
+	}
+
+	/**
+	 * Writes the table if it changed since it was read
+	 */
+	public void save() {
+		if (!changed) return;
+		StringBuilder builder = new StringBuilder();
+		for (int id = 1; id < names.size; id++) {
+			builder.append(names.get(id)).append('\n');
+		}
+		file.writeString(builder.toString(), false, "UTF-8");
+		changed = false;
+	}
+}
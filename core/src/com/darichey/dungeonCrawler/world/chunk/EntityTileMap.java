@@ -1,51 +1,206 @@
 package com.darichey.dungeonCrawler.world.chunk;
 
 import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.IntArray;
 import com.darichey.dungeonCrawler.entity.base.GameEntity;
 import com.darichey.dungeonCrawler.init.register.EntityRegistry;
 import com.darichey.dungeonCrawler.util.Logger;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 
 /**
  * Generic tile map storing the NON-Dynamic entities in the chunk
  */
 public class EntityTileMap {
 	/**
-	 * Underlying 2D array. Each position in the array stores an entity's ID found in {@link EntityRegistry} *
+	 * Underlying array, stored row by row. Each position in the array stores an entity's ID found in {@link EntityRegistry} *
 	 */
-	private int[][] entityMap;
+	private short[] entityMap;
 	private int xSize, ySize;
 
+	/**
+	 * One bit per tile, in the same order as entityMap, set if the tile holds a solid entity (see {@link EntityRegistry#isSolid(int)})
+	 */
+	private long[] solidTiles;
+
+	/**
+	 * Number of tiles holding each entity ID. Index 0 counts the empty tiles. Grown when a larger ID is put in the map.
+	 */
+	private int[] entityCounts = new int[16];
+
 	public EntityTileMap(int xSize, int ySize) {
-		this.entityMap = new int[xSize][ySize];
+		this.entityMap = new short[xSize * ySize];
+		this.solidTiles = new long[(entityMap.length + 63) >> 6];
 		this.xSize = xSize;
 		this.ySize = ySize;
+		this.entityCounts[0] = entityMap.length;
 	}
 
 	public void putEntityAt(GameEntity entity, Vector2 chunkPos) {
-		int posX = (int) Math.floor(chunkPos.x);
-		int posY = (int) Math.floor(chunkPos.y);
-		if (entity == null) {
-			entityMap[posX][posY] = 0;
+		putEntityAt(entity, (int) Math.floor(chunkPos.x), (int) Math.floor(chunkPos.y));
+	}
+
+	public void putEntityAt(GameEntity entity, int x, int y) {
+		int index = y * xSize + x;
+		int id = entity == null ? 0 : EntityRegistry.getIDForEntity(entity);
+		entityCounts[entityMap[index]]--;
+		count(id);
+		entityMap[index] = (short) id;
+		if (EntityRegistry.isSolid(id)) {
+			solidTiles[index >> 6] |= 1L << index;
 		} else {
-			entityMap[posX][posY] = EntityRegistry.getIDForEntity(entity);
+			solidTiles[index >> 6] &= ~(1L << index);
 		}
 	}
 
 	public GameEntity getEntityAt(Vector2 chunkPos) {
-		int id = entityMap[(int) Math.floor(chunkPos.x)][(int) Math.floor(chunkPos.y)];
-		return EntityRegistry.getEntityFromID(id);
+		return getEntityAt((int) Math.floor(chunkPos.x), (int) Math.floor(chunkPos.y));
 	}
 
-	public ArrayList<Vector2> getPositionsForEntity(GameEntity entity) {
-		ArrayList<Vector2> positions = new ArrayList<Vector2>();
+	public GameEntity getEntityAt(int x, int y) {
+		return EntityRegistry.getEntityFromID(entityMap[y * xSize + x]);
+	}
+
+	/**
+	 * Copies the ID of every tile into the passed array, in the same row by row order they are stored in
+	 */
+	public void copyTo(short[] ids) {
+		System.arraycopy(entityMap, 0, ids, 0, entityMap.length);
+	}
+
+	/**
+	 * Replaces the ID of every tile with the IDs in the passed array, in the order written by {@link #copyTo(short[])}
+	 */
+	public void setAll(short[] ids) {
+		System.arraycopy(ids, 0, entityMap, 0, entityMap.length);
+		Arrays.fill(entityCounts, 0);
+		Arrays.fill(solidTiles, 0);
+		for (int index = 0; index < entityMap.length; index++) {
+			count(entityMap[index]);
+			if (EntityRegistry.isSolid(entityMap[index])) {
+				solidTiles[index >> 6] |= 1L << index;
+			}
+		}
+	}
+
+	private void count(int id) {
+		if (id >= entityCounts.length) {
+			int[] grown = new int[Math.max(entityCounts.length * 2, id + 1)];
+			System.arraycopy(entityCounts, 0, grown, 0, entityCounts.length);
+			entityCounts = grown;
+		}
+		entityCounts[id]++;
+	}
+
+	public boolean isSolid(int x, int y) {
+		int index = y * xSize + x;
+		return (solidTiles[index >> 6] & (1L << index)) != 0;
+	}
+
+	/**
+	 * @return Bit x of the result is set if tile (x, y) is solid. Only valid while xSize is at most 64.
+	 */
+	private long getSolidRow(int y) {
+		int start = y * xSize;
+		int bit = start & 63;
+		long row = solidTiles[start >> 6] >>> bit;
+		if (bit + xSize > 64) {
+			row |= solidTiles[(start >> 6) + 1] << (64 - bit);
+		}
+		return xSize == 64 ? row : row & ((1L << xSize) - 1);
+	}
+
+	/**
+	 * Covers the solid tiles with as few rectangles as the greedy approach finds: each row is split into runs of
+	 * solid tiles, and each run is extended upwards while the rows above are solid across its full width.
+	 * Every solid tile ends up in exactly one rectangle.
+	 *
+	 * @param out Array to add the rectangles to, as x, y, width and height in tiles
+	 * @return The passed array
+	 */
+	public IntArray getSolidRectangles(IntArray out) {
+		if (xSize > 64) {
+			throw new IllegalStateException("Tile map is too wide to mesh: " + xSize);
+		}
+		long[] rows = new long[ySize];
 		for (int y = 0; y < ySize; y++) {
-			for (int x = 0; x < xSize; x++) {
-				Vector2 pos = new Vector2(x, y);
-				if (getEntityAt(pos) == entity) {
-					positions.add(pos);
+			rows[y] = getSolidRow(y);
+		}
+		return mergeRows(rows, out);
+	}
+
+	/**
+	 * Same as {@link #getSolidRectangles(IntArray)}, for tiles copied out by {@link #copyTo(short[])}
+	 *
+	 * @param ids   The ID of every tile, row by row
+	 * @param xSize Number of tiles in a row, at most 64
+	 */
+	public static IntArray getSolidRectangles(short[] ids, int xSize, IntArray out) {
+		if (xSize > 64) {
+			throw new IllegalStateException("Tile map is too wide to mesh: " + xSize);
+		}
+		long[] rows = new long[ids.length / xSize];
+		for (int index = 0; index < ids.length; index++) {
+			if (EntityRegistry.isSolid(ids[index])) {
+				rows[index / xSize] |= 1L << (index % xSize);
+			}
+		}
+		return mergeRows(rows, out);
+	}
+
+	/**
+	 * @param rows Bit x of each row is set if tile (x, y) is solid. Cleared by the merge.
+	 */
+	private static IntArray mergeRows(long[] rows, IntArray out) {
+		for (int y = 0; y < rows.length; y++) {
+			while (rows[y] != 0) {
+				int x = Long.numberOfTrailingZeros(rows[y]);
+				int width = Long.numberOfTrailingZeros(~(rows[y] >>> x));
+				long run = (width == 64 ? -1L : (1L << width) - 1) << x;
+				int height = 1;
+				while (y + height < rows.length && (rows[y + height] & run) == run) {
+					rows[y + height] &= ~run;
+					height++;
 				}
+				rows[y] &= ~run;
+				out.add(x);
+				out.add(y);
+				out.add(width);
+				out.add(height);
+			}
+		}
+		return out;
+	}
+
+	/**
+	 * @return Number of tiles holding a solid entity
+	 */
+	public int getSolidCount() {
+		int count = 0;
+		for (long word : solidTiles) {
+			count += Long.bitCount(word);
+		}
+		return count;
+	}
+
+	/**
+	 * @return Number of tiles holding the passed entity, or the number of empty tiles if it is null
+	 */
+	public int getCount(GameEntity entity) {
+		Integer id = entity == null ? Integer.valueOf(0) : EntityRegistry.getIDForEntity(entity);
+		return id != null && id < entityCounts.length ? entityCounts[id] : 0;
+	}
+
+	public ArrayList<Vector2> getPositionsForEntity(GameEntity entity) {
+		ArrayList<Vector2> positions = new ArrayList<Vector2>();
+		int remaining = getCount(entity);
+		if (remaining == 0) return positions;
+		short id = entity == null ? 0 : (short) EntityRegistry.getIDForEntity(entity).intValue();
+		for (int index = 0; remaining > 0; index++) {
+			if (entityMap[index] == id) {
+				positions.add(new Vector2(index % xSize, index / xSize));
+				remaining--;
 			}
 		}
 		return positions;
@@ -54,7 +209,7 @@ public class EntityTileMap {
 	public void visualize() {
 		for (int y = 0; y < ySize; y++) {
 			for (int x = 0; x < xSize; x++) {
-				Logger.log(Integer.toString(entityMap[x][ySize - y - 1]));
+				Logger.log(Integer.toString(entityMap[(ySize - y - 1) * xSize + x]));
 			}
 			Logger.log("");
 		}
@@ -0,0 +1,40 @@
+package com.darichey.dungeonCrawler.world.chunk;
+
+import com.badlogic.gdx.utils.LongMap;
+import com.darichey.dungeonCrawler.world.World;
+
+/**
+ * Keeps saved chunks in memory. Only chunks that were changed after being generated are saved by the world, so this
+ * grows with the number of chunks the player has edited rather than the number explored.
+ */
+public class MemoryChunkStorage implements ChunkStorage {
+	private LongMap<short[]> saved = new LongMap<short[]>();
+
+	@Override
+	public boolean load(int chunkX, int chunkY, short[] tiles) {
+		short[] savedTiles = saved.get(World.getChunkKey(chunkX, chunkY));
+		if (savedTiles == null) return false;
+		System.arraycopy(savedTiles, 0, tiles, 0, savedTiles.length);
+		return true;
+	}
+
+	@Override
+	public void save(Chunk chunk) {
+		long key = World.getChunkKey(chunk.getX(), chunk.getY());
+		short[] tiles = saved.get(key);
+		if (tiles == null) {
+			tiles = new short[Chunk.length * Chunk.length];
+			saved.put(key, tiles);
+		}
+		chunk.copyTilesTo(tiles);
+	}
+
+	@Override
+	public void flush() {
+	}
+
+	@Override
+	public void dispose() {
+		saved.clear();
+	}
+}
@@ -0,0 +1,265 @@
+package com.darichey.dungeonCrawler.world.chunk;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.LongMap;
+import com.darichey.dungeonCrawler.world.World;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Saves chunks to region files, each holding a square of {@link #regionLength} by {@link #regionLength} chunks.
+ * Every chunk has a fixed slot in its region file, large enough for the largest possible encoding, so a chunk is
+ * always rewritten in place. Region files are memory mapped and chunks are decoded straight from the mapping.
+ * <p>
+ * A slot holds the length of the encoded chunk followed by the encoding, or a length of 0 if the chunk was never
+ * saved. A chunk is encoded as a palette of the distinct entity IDs in it, followed by either the palette index of
+ * every tile bit packed, or runs of palette indices, whichever is smaller. The palette holds the IDs of the
+ * directory's {@link EntityIDTable}, which are translated to and from the current registry IDs only when they differ.
+ */
+public class RegionFileStorage implements ChunkStorage {
+	// Side length of a region in chunks
+	public static final int regionLength = 32;
+	public static final int regionBits = 5;
+	private static final int tileCount = Chunk.length * Chunk.length;
+	/**
+	 * Bytes per chunk slot. The largest encoding is a 256 entry palette followed by 8 bit packed indices.
+	 */
+	private static final int slotSize = 1024;
+	private static final int regionSize = regionLength * regionLength * slotSize;
+	// Regions kept mapped at once. The least recently used region is closed first.
+	private static final int maxOpenRegions = 16;
+
+	private static final byte bitPacked = 0;
+	private static final byte runLength = 1;
+
+	private FileHandle directory;
+	private EntityIDTable idTable;
+	private LongMap<Region> regions = new LongMap<Region>();
+	private int useCounter;
+
+	/**
+	 * Reused to encode chunks before they are copied into their slot
+	 */
+	private ByteBuffer encoded = ByteBuffer.allocate(slotSize);
+	private short[] palette = new short[tileCount];
+	private byte[] indices = new byte[tileCount];
+	private short[] tiles = new short[tileCount];
+
+	/**
+	 * Must be created after the entity registry is frozen.
+	 *
+	 * @param directory The directory the region files are kept in. Created on the first save.
+	 */
+	public RegionFileStorage(FileHandle directory) {
+		this.directory = directory;
+		this.idTable = new EntityIDTable(directory.child("entities.txt"));
+	}
+
+	@Override
+	public boolean load(int chunkX, int chunkY, short[] tiles) {
+		Region region = getRegion(chunkX >> regionBits, chunkY >> regionBits, false);
+		if (region == null) return false;
+		ByteBuffer slot = region.buffer.duplicate();
+		slot.position(getSlotOffset(chunkX, chunkY));
+		if (slot.getInt() == 0) return false;
+		decode(slot, tiles);
+		return true;
+	}
+
+	@Override
+	public void save(Chunk chunk) {
+		chunk.copyTilesTo(tiles);
+		encoded.clear();
+		encode(tiles, encoded);
+		encoded.flip();
+
+		Region region = getRegion(chunk.getX() >> regionBits, chunk.getY() >> regionBits, true);
+		// Written before any chunk that uses it
+		idTable.save();
+		ByteBuffer slot = region.buffer.duplicate();
+		slot.position(getSlotOffset(chunk.getX(), chunk.getY()));
+		slot.putInt(encoded.remaining());
+		slot.put(encoded);
+	}
+
+	@Override
+	public void flush() {
+		for (Region region : regions.values()) {
+			region.buffer.force();
+		}
+	}
+
+	@Override
+	public void dispose() {
+		for (Region region : regions.values()) {
+			region.close();
+		}
+		regions.clear();
+	}
+
+	private Region getRegion(int regionX, int regionY, boolean create) {
+		long key = World.getChunkKey(regionX, regionY);
+		Region region = regions.get(key);
+		if (region == null) {
+			FileHandle file = directory.child("r." + regionX + "." + regionY + ".dat");
+			if (!create && !file.exists()) return null;
+			if (regions.size >= maxOpenRegions) {
+				closeLeastRecentlyUsed();
+			}
+			directory.mkdirs();
+			region = new Region(file);
+			regions.put(key, region);
+		}
+		region.lastUsed = ++useCounter;
+		return region;
+	}
+
+	private void closeLeastRecentlyUsed() {
+		LongMap.Entry<Region> oldest = null;
+		for (LongMap.Entry<Region> entry : regions.entries()) {
+			if (oldest == null || entry.value.lastUsed < oldest.value.lastUsed) {
+				oldest = entry;
+			}
+		}
+		oldest.value.close();
+		regions.remove(oldest.key);
+	}
+
+	private static int getSlotOffset(int chunkX, int chunkY) {
+		int regionMask = regionLength - 1;
+		return (((chunkY & regionMask) << regionBits) | (chunkX & regionMask)) * slotSize;
+	}
+
+	private void encode(short[] tiles, ByteBuffer out) {
+		int paletteSize = 0;
+		for (int i = 0; i < tileCount; i++) {
+			int index = 0;
+			while (index < paletteSize && palette[index] != tiles[i]) {
+				index++;
+			}
+			if (index == paletteSize) {
+				palette[paletteSize++] = tiles[i];
+			}
+			indices[i] = (byte) index;
+		}
+
+		if (!idTable.isIdentity()) {
+			idTable.toSaved(palette, paletteSize);
+		}
+		out.putShort((short) paletteSize);
+		for (int i = 0; i < paletteSize; i++) {
+			out.putShort(palette[i]);
+		}
+		if (paletteSize == 1) return;
+
+		int bits = getBitsPerIndex(paletteSize);
+		int runs = 1;
+		for (int i = 1; i < tileCount; i++) {
+			if (indices[i] != indices[i - 1]) runs++;
+		}
+		if (runs * 2 < tileCount * bits / 8) {
+			out.put(runLength);
+			int start = 0;
+			for (int i = 1; i <= tileCount; i++) {
+				if (i == tileCount || indices[i] != indices[start]) {
+					out.put(indices[start]);
+					// A run is at most the whole chunk, so its length minus one fits in a byte
+					out.put((byte) (i - start - 1));
+					start = i;
+				}
+			}
+		} else {
+			out.put(bitPacked);
+			int packed = 0, packedBits = 0;
+			for (int i = 0; i < tileCount; i++) {
+				packed |= (indices[i] & 0xFF) << packedBits;
+				packedBits += bits;
+				while (packedBits >= 8) {
+					out.put((byte) packed);
+					packed >>>= 8;
+					packedBits -= 8;
+				}
+			}
+			if (packedBits > 0) {
+				out.put((byte) packed);
+			}
+		}
+	}
+
+	private void decode(ByteBuffer in, short[] tiles) {
+		int paletteSize = in.getShort();
+		for (int i = 0; i < paletteSize; i++) {
+			palette[i] = in.getShort();
+		}
+		if (!idTable.isIdentity()) {
+			idTable.toCurrent(palette, paletteSize);
+		}
+		if (paletteSize == 1) {
+			for (int i = 0; i < tileCount; i++) {
+				tiles[i] = palette[0];
+			}
+			return;
+		}
+
+		if (in.get() == runLength) {
+			int i = 0;
+			while (i < tileCount) {
+				short id = palette[in.get() & 0xFF];
+				int end = i + (in.get() & 0xFF) + 1;
+				while (i < end) {
+					tiles[i++] = id;
+				}
+			}
+		} else {
+			int bits = getBitsPerIndex(paletteSize);
+			int mask = (1 << bits) - 1;
+			int packed = 0, packedBits = 0;
+			for (int i = 0; i < tileCount; i++) {
+				while (packedBits < bits) {
+					packed |= (in.get() & 0xFF) << packedBits;
+					packedBits += 8;
+				}
+				tiles[i] = palette[packed & mask];
+				packed >>>= bits;
+				packedBits -= bits;
+			}
+		}
+	}
+
+	private static int getBitsPerIndex(int paletteSize) {
+		return 32 - Integer.numberOfLeadingZeros(paletteSize - 1);
+	}
+
+	private static class Region {
+		final RandomAccessFile file;
+		final FileChannel channel;
+		final MappedByteBuffer buffer;
+		int lastUsed;
+
+		Region(FileHandle fileHandle) {
+			try {
+				this.file = new RandomAccessFile(fileHandle.file(), "rw");
+				this.channel = file.getChannel();
+				// Slots that were never written stay zero and, on most file systems, take no disk space
+				this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, regionSize);
+			} catch (IOException e) {
+				throw new GdxRuntimeException("Couldn't open region file " + fileHandle, e);
+			}
+		}
+
+		void close() {
+			buffer.force();
+			try {
+				channel.close();
+				file.close();
+			} catch (IOException e) {
+				throw new GdxRuntimeException("Couldn't close region file", e);
+			}
+		}
+	}
+}
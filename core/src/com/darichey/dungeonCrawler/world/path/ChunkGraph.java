@@ -0,0 +1,153 @@
+package com.darichey.dungeonCrawler.world.path;
+
+import com.badlogic.gdx.ai.pfa.Connection;
+import com.badlogic.gdx.ai.pfa.DefaultConnection;
+import com.badlogic.gdx.ai.pfa.indexed.IndexedGraph;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.LongArray;
+import com.badlogic.gdx.utils.LongMap;
+import com.darichey.dungeonCrawler.world.World;
+import com.darichey.dungeonCrawler.world.chunk.Chunk;
+
+/**
+ * Graph of the loaded chunks, used to find which chunks a path has to pass through before searching its tiles.
+ * Two neighbouring chunks are connected if any tile on one side of their shared border can be walked through along
+ * with the tile next to it on the other side.
+ * <p>
+ * Searches are confined to a square window of chunks around the chunk they start in. Node indices wrap around within
+ * the window, so the node count does not depend on where in the world the search is.
+ */
+class ChunkGraph implements IndexedGraph<ChunkNode> {
+	/** Offsets of the neighbours of a node, in the order connections are stored in **/
+	static final int[] neighbourX = {1, 0, -1, 0};
+	static final int[] neighbourY = {0, 1, 0, -1};
+
+	private final World world;
+
+	/** Side length of the window searches are confined to, in chunks. Always odd. **/
+	final int windowChunks;
+
+	/** The chunk the window is centered on **/
+	private int originX, originY;
+
+	/** Node of each loaded chunk reached by a search so far, keyed by {@link World#getChunkKey(int, int)} **/
+	private LongMap<ChunkNode> nodes = new LongMap<ChunkNode>();
+
+	/** Returned by {@link #getConnections(ChunkNode)}, only valid until the next call **/
+	private Array<Connection<ChunkNode>> connections = new Array<Connection<ChunkNode>>(4);
+
+	ChunkGraph(World world, int windowChunks) {
+		this.world = world;
+		this.windowChunks = windowChunks | 1;
+	}
+
+	void setOrigin(int chunkX, int chunkY) {
+		this.originX = chunkX;
+		this.originY = chunkY;
+	}
+
+	boolean isInWindow(int chunkX, int chunkY) {
+		return Math.abs(chunkX - originX) <= windowChunks / 2 && Math.abs(chunkY - originY) <= windowChunks / 2;
+	}
+
+	/**
+	 * @return The node of the chunk at the passed position, or null if the chunk is not loaded
+	 */
+	ChunkNode getNode(int chunkX, int chunkY) {
+		long key = World.getChunkKey(chunkX, chunkY);
+		ChunkNode node = nodes.get(key);
+		if (node == null) {
+			Chunk chunk = world.getChunk(chunkX, chunkY);
+			if (chunk == null) return null;
+			int index = wrap(chunkY, windowChunks) * windowChunks + wrap(chunkX, windowChunks);
+			node = new ChunkNode(this, chunk, key, index);
+			nodes.put(key, node);
+		}
+		return node;
+	}
+
+	/**
+	 * @return The node with the passed key, if a search has reached its chunk since it was loaded
+	 */
+	ChunkNode getNode(long key) {
+		return nodes.get(key);
+	}
+
+	/**
+	 * Drops the nodes of chunks that were unloaded and catches up with chunks whose tiles changed
+	 *
+	 * @param changed Array the keys of the dropped and changed chunks are added to
+	 */
+	void update(LongArray changed) {
+		LongMap.Values<ChunkNode> values = nodes.values();
+		while (values.hasNext()) {
+			ChunkNode node = values.next();
+			Chunk chunk = world.getChunk(node.chunkX, node.chunkY);
+			if (chunk != node.chunk) {
+				values.remove();
+				changed.add(node.key);
+			} else if (chunk.getRevision() != node.revision) {
+				node.revision = chunk.getRevision();
+				changed.add(node.key);
+			}
+		}
+	}
+
+	@Override
+	public Array<Connection<ChunkNode>> getConnections(ChunkNode node) {
+		connections.clear();
+		for (int i = 0; i < 4; i++) {
+			int chunkX = node.chunkX + neighbourX[i];
+			int chunkY = node.chunkY + neighbourY[i];
+			if (!isInWindow(chunkX, chunkY)) continue;
+			ChunkNode neighbour = getNode(chunkX, chunkY);
+			if (neighbour == null || !canCross(node.chunk, neighbour.chunk, i)) continue;
+			if (node.connections[i] == null || node.connections[i].getToNode() != neighbour) {
+				node.connections[i] = new DefaultConnection<ChunkNode>(node, neighbour);
+			}
+			connections.add(node.connections[i]);
+		}
+		return connections;
+	}
+
+	/**
+	 * @param direction Index of the neighbour in {@link #neighbourX}
+	 * @return If any tile on the border of the first chunk facing the second can be walked through, along with the
+	 * tile next to it in the second chunk
+	 */
+	private static boolean canCross(Chunk from, Chunk to, int direction) {
+		int last = Chunk.length - 1;
+		for (int i = 0; i < Chunk.length; i++) {
+			boolean blocked;
+			switch (direction) {
+				case 0:
+					blocked = from.isSolid(last, i) || to.isSolid(0, i);
+					break;
+				case 1:
+					blocked = from.isSolid(i, last) || to.isSolid(i, 0);
+					break;
+				case 2:
+					blocked = from.isSolid(0, i) || to.isSolid(last, i);
+					break;
+				default:
+					blocked = from.isSolid(i, 0) || to.isSolid(i, last);
+					break;
+			}
+			if (!blocked) return true;
+		}
+		return false;
+	}
+
+	@Override
+	public int getNodeCount() {
+		return windowChunks * windowChunks;
+	}
+
+	/**
+	 * @return The passed value modulo the passed size, never negative
+	 */
+	static int wrap(int value, int size) {
+		int wrapped = value % size;
+		return wrapped < 0 ? wrapped + size : wrapped;
+	}
+}
@@ -0,0 +1,69 @@
+package com.darichey.dungeonCrawler.world.path;
+
+import com.badlogic.gdx.ai.pfa.Connection;
+import com.badlogic.gdx.ai.pfa.DefaultConnection;
+import com.badlogic.gdx.ai.pfa.indexed.IndexedNode;
+import com.badlogic.gdx.utils.Array;
+import com.darichey.dungeonCrawler.world.chunk.Chunk;
+
+/**
+ * A loaded chunk in the {@link ChunkGraph}. Also holds the {@link TileNode}s of the chunk's tiles, created the first
+ * time a search reaches them.
+ */
+class ChunkNode implements IndexedNode<ChunkNode> {
+	final ChunkGraph graph;
+	final Chunk chunk;
+	final int chunkX, chunkY;
+	final long key;
+	final int index;
+
+	/** The chunk revision routes through this chunk were found at **/
+	int revision;
+
+	/** The search this chunk may be entered by, see {@link TileGraph#corridor} **/
+	int corridorSearch = -1;
+
+	/** Tile nodes by position within the chunk, row by row **/
+	private TileNode[] tiles;
+
+	/** Connection to each neighbour, in the order of {@link ChunkGraph#neighbourX} **/
+	final DefaultConnection<ChunkNode>[] connections;
+
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	ChunkNode(ChunkGraph graph, Chunk chunk, long key, int index) {
+		this.graph = graph;
+		this.chunk = chunk;
+		this.chunkX = chunk.getX();
+		this.chunkY = chunk.getY();
+		this.key = key;
+		this.index = index;
+		this.revision = chunk.getRevision();
+		this.connections = new DefaultConnection[4];
+	}
+
+	/**
+	 * @param x X position within the chunk
+	 * @param y Y position within the chunk
+	 */
+	TileNode getTile(TileGraph tileGraph, int x, int y) {
+		if (tiles == null) {
+			tiles = new TileNode[Chunk.length * Chunk.length];
+		}
+		TileNode tile = tiles[y * Chunk.length + x];
+		if (tile == null) {
+			tile = new TileNode(tileGraph, this, chunk.getWorldX(x), chunk.getWorldY(y));
+			tiles[y * Chunk.length + x] = tile;
+		}
+		return tile;
+	}
+
+	@Override
+	public int getIndex() {
+		return index;
+	}
+
+	@Override
+	public Array<Connection<ChunkNode>> getConnections() {
+		return graph.getConnections(this);
+	}
+}
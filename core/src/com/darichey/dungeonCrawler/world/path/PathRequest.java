@@ -0,0 +1,56 @@
+package com.darichey.dungeonCrawler.world.path;
+
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * A path requested from a {@link PathfindingService}. Searched over the following updates of the service, check
+ * {@link #isDone()} to know when the result is ready.
+ */
+public class PathRequest {
+	public enum Status {
+		/** Waiting for the requests before it **/
+		QUEUED,
+		SEARCHING,
+		FOUND,
+		/** There is no path, or the start or goal can not be walked through or is not loaded **/
+		NOT_FOUND,
+		CANCELED
+	}
+
+	/** World positions of the start and goal tiles **/
+	public final int startX, startY, goalX, goalY;
+
+	Status status = Status.QUEUED;
+
+	/**
+	 * The tiles of the path from the start to the goal, both included, as x and y pairs. Filled once the path is found.
+	 */
+	public final IntArray path = new IntArray();
+
+	PathRequest(int startX, int startY, int goalX, int goalY) {
+		this.startX = startX;
+		this.startY = startY;
+		this.goalX = goalX;
+		this.goalY = goalY;
+	}
+
+	public Status getStatus() {
+		return status;
+	}
+
+	/**
+	 * @return If the search is over, whether or not a path was found
+	 */
+	public boolean isDone() {
+		return status == Status.FOUND || status == Status.NOT_FOUND || status == Status.CANCELED;
+	}
+
+	/**
+	 * Stops the search. The request is dropped on the next update of the service.
+	 */
+	public void cancel() {
+		if (!isDone()) {
+			status = Status.CANCELED;
+		}
+	}
+}
@@ -0,0 +1,242 @@
+package com.darichey.dungeonCrawler.world.path;
+
+import com.badlogic.gdx.ai.pfa.DefaultGraphPath;
+import com.badlogic.gdx.ai.pfa.Heuristic;
+import com.badlogic.gdx.ai.pfa.PathFinderRequest;
+import com.badlogic.gdx.ai.pfa.indexed.IndexedAStarPathFinder;
+import com.badlogic.gdx.utils.LongArray;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.darichey.dungeonCrawler.world.World;
+import com.darichey.dungeonCrawler.world.chunk.Chunk;
+
+import java.util.ArrayDeque;
+
+/**
+ * Finds paths between tiles of the world for entities that can not walk through blocks.
+ * <p>
+ * Paths are found in two steps. A* over the loaded chunks first finds the chunks the path has to pass through, then
+ * A* over the tiles of only those chunks finds the path itself. If the tiles of those chunks do not connect, the
+ * tile search is repeated over every chunk within reach. Routes between chunks are cached by start and goal chunk
+ * until one of the chunks on them changes or is unloaded.
+ * <p>
+ * Requests are searched one at a time in the order they were made, each update only running for the time it is
+ * given. A long search carries on in the next update, so many requests at once do not make one update slow.
+ * Must only be used from the thread updating the world.
+ */
+public class PathfindingService {
+	private ChunkGraph chunkGraph;
+	private TileGraph tileGraph;
+	private IndexedAStarPathFinder<ChunkNode> chunkPathFinder;
+	private IndexedAStarPathFinder<TileNode> tilePathFinder;
+
+	private ArrayDeque<PathRequest> requests = new ArrayDeque<PathRequest>();
+
+	/** The request being searched, and the search state handed to {@link #tilePathFinder} **/
+	private PathRequest current;
+	private PathFinderRequest<TileNode> search = new PathFinderRequest<TileNode>();
+	private DefaultGraphPath<TileNode> tilePath = new DefaultGraphPath<TileNode>();
+	private DefaultGraphPath<ChunkNode> chunkPath = new DefaultGraphPath<ChunkNode>();
+	private int searchCount;
+
+	/** Keys of the chunks on the route between each pair of chunks. Routes that were not found are not cached. **/
+	private ObjectMap<RouteKey, long[]> routes = new ObjectMap<RouteKey, long[]>();
+	private RouteKey lookupKey = new RouteKey();
+
+	/** Most routes cached at once. The cache is cleared when it is full. **/
+	public int maxCachedRoutes = 256;
+
+	/** Reused for the keys of chunks changed since the last update **/
+	private LongArray changedChunks = new LongArray();
+
+	/** Manhattan distance, which never overestimates since entities only move between neighbouring tiles **/
+	private Heuristic<TileNode> tileDistance = new Heuristic<TileNode>() {
+		@Override
+		public float estimate(TileNode node, TileNode endNode) {
+			return Math.abs(endNode.x - node.x) + Math.abs(endNode.y - node.y);
+		}
+	};
+	private Heuristic<ChunkNode> chunkDistance = new Heuristic<ChunkNode>() {
+		@Override
+		public float estimate(ChunkNode node, ChunkNode endNode) {
+			return Math.abs(endNode.chunkX - node.chunkX) + Math.abs(endNode.chunkY - node.chunkY);
+		}
+	};
+
+	/**
+	 * @param windowChunks Side length, in chunks, of the square around its start a path is searched in. Should be
+	 *                     twice the width of the area chunks can be loaded in, so the window reaches every loaded
+	 *                     chunk from any other.
+	 */
+	public PathfindingService(World world, int windowChunks) {
+		chunkGraph = new ChunkGraph(world, windowChunks);
+		tileGraph = new TileGraph(chunkGraph);
+		chunkPathFinder = new IndexedAStarPathFinder<ChunkNode>(chunkGraph);
+		tilePathFinder = new IndexedAStarPathFinder<TileNode>(tileGraph);
+		search.heuristic = tileDistance;
+		search.resultPath = tilePath;
+	}
+
+	/**
+	 * Queues a search for a path between the passed tiles
+	 *
+	 * @return The request, to be checked for the path once it is done
+	 */
+	public PathRequest request(int startX, int startY, int goalX, int goalY) {
+		PathRequest request = new PathRequest(startX, startY, goalX, goalY);
+		requests.add(request);
+		return request;
+	}
+
+	/**
+	 * Searches the queued requests until they are all done or the passed time runs out
+	 *
+	 * @param timeToRun Time to search for, in nanoseconds
+	 */
+	public void update(long timeToRun) {
+		long endTime = System.nanoTime() + timeToRun;
+		changedChunks.clear();
+		chunkGraph.update(changedChunks);
+		if (changedChunks.size > 0) {
+			invalidateRoutes();
+			// The current search may have already passed tiles that changed
+			if (current != null && current.status == PathRequest.Status.SEARCHING && !begin(current)) {
+				current = null;
+			}
+		}
+
+		while (true) {
+			if (current == null || current.status != PathRequest.Status.SEARCHING) {
+				current = requests.poll();
+				if (current == null) return;
+				if (current.status == PathRequest.Status.CANCELED || !begin(current)) {
+					current = null;
+					continue;
+				}
+			}
+			if (!tilePathFinder.search(search, endTime - System.nanoTime())) return;
+			finish(current);
+		}
+	}
+
+	/**
+	 * Starts the tile search of the passed request
+	 *
+	 * @return If the search was started, false if the request is already known to have no path
+	 */
+	private boolean begin(PathRequest request) {
+		request.status = PathRequest.Status.SEARCHING;
+		int startChunkX = request.startX >> Chunk.lengthBits;
+		int startChunkY = request.startY >> Chunk.lengthBits;
+		int goalChunkX = request.goalX >> Chunk.lengthBits;
+		int goalChunkY = request.goalY >> Chunk.lengthBits;
+		chunkGraph.setOrigin(startChunkX, startChunkY);
+		tileGraph.corridor = false;
+		TileNode start = tileGraph.getNode(request.startX, request.startY);
+		TileNode goal = tileGraph.getNode(request.goalX, request.goalY);
+		long[] route = start == null || goal == null ? null : getRoute(startChunkX, startChunkY, goalChunkX, goalChunkY);
+		if (route == null) {
+			request.status = PathRequest.Status.NOT_FOUND;
+			return false;
+		}
+
+		searchCount++;
+		for (long key : route) {
+			chunkGraph.getNode(key).corridorSearch = searchCount;
+		}
+		tileGraph.corridor = true;
+		tileGraph.search = searchCount;
+		search.startNode = start;
+		search.endNode = goal;
+		search.statusChanged = true;
+		tilePath.clear();
+		return true;
+	}
+
+	/**
+	 * Called when the tile search of the passed request is over. Repeats the search over every chunk in reach if no
+	 * path was found through the chunks of the route.
+	 */
+	private void finish(PathRequest request) {
+		if (search.pathFound) {
+			request.path.clear();
+			for (TileNode node : tilePath) {
+				request.path.add(node.x);
+				request.path.add(node.y);
+			}
+			request.status = PathRequest.Status.FOUND;
+		} else if (tileGraph.corridor) {
+			// Neighbouring chunks on the route are connected somewhere, but not necessarily where the route enters them
+			tileGraph.corridor = false;
+			search.statusChanged = true;
+			tilePath.clear();
+		} else {
+			request.status = PathRequest.Status.NOT_FOUND;
+		}
+	}
+
+	/**
+	 * @return Keys of the chunks on the route between the passed chunks, or null if they do not connect
+	 */
+	private long[] getRoute(int startChunkX, int startChunkY, int goalChunkX, int goalChunkY) {
+		lookupKey.set(startChunkX, startChunkY, goalChunkX, goalChunkY);
+		long[] route = routes.get(lookupKey);
+		if (route != null) return route;
+
+		chunkPath.clear();
+		if (!chunkPathFinder.searchNodePath(chunkGraph.getNode(startChunkX, startChunkY), chunkGraph.getNode(goalChunkX, goalChunkY), chunkDistance, chunkPath)) {
+			return null;
+		}
+		route = new long[chunkPath.getCount()];
+		for (int i = 0; i < route.length; i++) {
+			route[i] = chunkPath.get(i).key;
+		}
+		if (routes.size >= maxCachedRoutes) {
+			routes.clear();
+		}
+		routes.put(new RouteKey().set(startChunkX, startChunkY, goalChunkX, goalChunkY), route);
+		return route;
+	}
+
+	/**
+	 * Removes the cached routes passing through any of the {@link #changedChunks}
+	 */
+	private void invalidateRoutes() {
+		ObjectMap.Values<long[]> values = routes.values();
+		while (values.hasNext()) {
+			long[] route = values.next();
+			for (long key : route) {
+				if (changedChunks.contains(key)) {
+					values.remove();
+					break;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Start and goal chunk of a cached route
+	 */
+	private static class RouteKey {
+		int startX, startY, goalX, goalY;
+
+		RouteKey set(int startX, int startY, int goalX, int goalY) {
+			this.startX = startX;
+			this.startY = startY;
+			this.goalX = goalX;
+			this.goalY = goalY;
+			return this;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof RouteKey)) return false;
+			RouteKey other = (RouteKey) o;
+			return startX == other.startX && startY == other.startY && goalX == other.goalX && goalY == other.goalY;
+		}
+
+		@Override
+		public int hashCode() {
+			return ((startX * 31 + startY) * 31 + goalX) * 31 + goalY;
+		}
+	}
+}
@@ -0,0 +1,80 @@
+package com.darichey.dungeonCrawler.world.path;
+
+import com.badlogic.gdx.ai.pfa.Connection;
+import com.badlogic.gdx.ai.pfa.DefaultConnection;
+import com.badlogic.gdx.ai.pfa.indexed.IndexedGraph;
+import com.badlogic.gdx.utils.Array;
+import com.darichey.dungeonCrawler.world.chunk.Chunk;
+
+/**
+ * Graph of the tiles that can be walked through, each connected to its four neighbours. Covers the same window as
+ * the {@link ChunkGraph}, and node indices wrap around within it the same way.
+ */
+class TileGraph implements IndexedGraph<TileNode> {
+	private final ChunkGraph chunks;
+
+	/** Side length of the window, in tiles **/
+	private final int windowTiles;
+
+	/**
+	 * If set, searches may only enter chunks whose {@link ChunkNode#corridorSearch} is {@link #search}, the chunks on
+	 * the route found by the {@link ChunkGraph}
+	 */
+	boolean corridor;
+	int search;
+
+	/** Returned by {@link #getConnections(TileNode)}, only valid until the next call **/
+	private Array<Connection<TileNode>> connections = new Array<Connection<TileNode>>(4);
+
+	TileGraph(ChunkGraph chunks) {
+		this.chunks = chunks;
+		this.windowTiles = chunks.windowChunks * Chunk.length;
+	}
+
+	int getIndex(int x, int y) {
+		return ChunkGraph.wrap(y, windowTiles) * windowTiles + ChunkGraph.wrap(x, windowTiles);
+	}
+
+	/**
+	 * @param x X position of the tile in the world
+	 * @param y Y position of the tile in the world
+	 * @return The node of the tile, or null if it can not be walked through or is outside of the search
+	 */
+	TileNode getNode(int x, int y) {
+		int chunkX = x >> Chunk.lengthBits;
+		int chunkY = y >> Chunk.lengthBits;
+		if (!chunks.isInWindow(chunkX, chunkY)) return null;
+		ChunkNode chunk = chunks.getNode(chunkX, chunkY);
+		if (chunk == null || (corridor && chunk.corridorSearch != search)) return null;
+		if (chunk.chunk.isSolid(x & Chunk.lengthMask, y & Chunk.lengthMask)) return null;
+		return chunk.getTile(this, x & Chunk.lengthMask, y & Chunk.lengthMask);
+	}
+
+	@Override
+	public Array<Connection<TileNode>> getConnections(TileNode node) {
+		connections.clear();
+		for (int i = 0; i < 4; i++) {
+			int x = node.x + ChunkGraph.neighbourX[i];
+			int y = node.y + ChunkGraph.neighbourY[i];
+			TileNode neighbour;
+			if (x >> Chunk.lengthBits == node.chunk.chunkX && y >> Chunk.lengthBits == node.chunk.chunkY) {
+				// Most neighbours are in the same chunk, which is already known to be part of the search
+				if (node.chunk.chunk.isSolid(x & Chunk.lengthMask, y & Chunk.lengthMask)) continue;
+				neighbour = node.chunk.getTile(this, x & Chunk.lengthMask, y & Chunk.lengthMask);
+			} else {
+				neighbour = getNode(x, y);
+				if (neighbour == null) continue;
+			}
+			if (node.connections[i] == null || node.connections[i].getToNode() != neighbour) {
+				node.connections[i] = new DefaultConnection<TileNode>(node, neighbour);
+			}
+			connections.add(node.connections[i]);
+		}
+		return connections;
+	}
+
+	@Override
+	public int getNodeCount() {
+		return windowTiles * windowTiles;
+	}
+}
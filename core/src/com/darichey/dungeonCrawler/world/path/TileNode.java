@@ -0,0 +1,40 @@
+package com.darichey.dungeonCrawler.world.path;
+
+import com.badlogic.gdx.ai.pfa.Connection;
+import com.badlogic.gdx.ai.pfa.DefaultConnection;
+import com.badlogic.gdx.ai.pfa.indexed.IndexedNode;
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * A tile in the {@link TileGraph}. Whether it can be walked through is read from its chunk when it is searched.
+ */
+class TileNode implements IndexedNode<TileNode> {
+	final TileGraph graph;
+	final ChunkNode chunk;
+	/** World position of the tile **/
+	final int x, y;
+	final int index;
+
+	/** Connection to each neighbour, in the order of {@link ChunkGraph#neighbourX}. Replaced when the neighbour's node is. **/
+	final DefaultConnection<TileNode>[] connections;
+
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	TileNode(TileGraph graph, ChunkNode chunk, int x, int y) {
+		this.graph = graph;
+		this.chunk = chunk;
+		this.x = x;
+		this.y = y;
+		this.index = graph.getIndex(x, y);
+		this.connections = new DefaultConnection[4];
+	}
+
+	@Override
+	public int getIndex() {
+		return index;
+	}
+
+	@Override
+	public Array<Connection<TileNode>> getConnections() {
+		return graph.getConnections(this);
+	}
+}
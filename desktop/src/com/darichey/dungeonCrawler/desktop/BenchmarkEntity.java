@@ -0,0 +1,16 @@
+package com.darichey.dungeonCrawler.desktop;
+
+import com.darichey.dungeonCrawler.entity.base.DynamicEntity;
+import com.darichey.dungeonCrawler.world.World;
+
+/**
+ * Dynamic entity with nothing but a size, added to the passed world
+ */
+class BenchmarkEntity extends DynamicEntity {
+	BenchmarkEntity(World world, float x, float y, int width, int height) {
+		setSize(width, height);
+		this.world = world;
+		setPos(x, y);
+		world.addDynamicEntity(this);
+	}
+}
@@ -0,0 +1,78 @@
+package com.darichey.dungeonCrawler.desktop;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.lwjgl.LwjglApplication;
+import com.badlogic.gdx.backends.lwjgl.LwjglApplicationConfiguration;
+import com.darichey.dungeonCrawler.entity.base.GameEntity;
+import com.darichey.dungeonCrawler.init.Entities;
+import com.darichey.dungeonCrawler.init.Items;
+import com.darichey.dungeonCrawler.render.ChunkRenderCache;
+import com.darichey.dungeonCrawler.render.WorldRenderer;
+import com.darichey.dungeonCrawler.render.WorldSnapshot;
+import com.darichey.dungeonCrawler.util.Logger;
+import com.darichey.dungeonCrawler.world.World;
+
+/**
+ * Times {@link WorldRenderer#render(WorldSnapshot, float)} over the player's starting chunks, then exits. The first
+ * pass draws an unchanged world, so every {@link ChunkRenderCache} is reused. The second changes a block next to the
+ * player every frame, so the chunk holding it is rebuilt each time. Frames are timed up to glFinish, so GPU work is
+ * included. Run it with "gradlew desktop:benchmarkChunkRender".
+ */
+public class ChunkRenderBenchmark extends ApplicationAdapter {
+	private static final int warmupFrames = 120;
+	private static final int measuredFrames = 1000;
+
+	private World world;
+	private WorldRenderer worldRenderer;
+	private WorldSnapshot snapshot = new WorldSnapshot();
+
+	public static void main(String[] arg) {
+		LwjglApplicationConfiguration config = new LwjglApplicationConfiguration();
+		config.width = 1280;
+		config.height = 720;
+		config.title = "Chunk render benchmark";
+		config.vSyncEnabled = false;
+		new LwjglApplication(new ChunkRenderBenchmark(), config);
+	}
+
+	@Override
+	public void create() {
+		Entities.init();
+		Items.init();
+		world = new World();
+		worldRenderer = new WorldRenderer();
+		snapshot.capture(world);
+
+		run("Unchanged world", false);
+		run("One block changed per frame", true);
+
+		worldRenderer.dispose();
+		world.dispose();
+		Gdx.app.exit();
+	}
+
+	private void run(String name, boolean changeBlock) {
+		int blockX = (int) world.player.getX() + 2;
+		int blockY = (int) world.player.getY();
+		GameEntity original = world.getEntityAt(blockX, blockY);
+		GameEntity replacement = original == null ? Entities.stone : null;
+
+		long total = 0;
+		for (int frame = 0; frame < warmupFrames + measuredFrames; frame++) {
+			if (changeBlock) {
+				world.setEntityAt(frame % 2 == 0 ? replacement : original, blockX, blockY);
+				snapshot.capture(world);
+			}
+			long start = System.nanoTime();
+			worldRenderer.render(snapshot, 1);
+			Gdx.gl.glFinish();
+			if (frame >= warmupFrames) {
+				total += System.nanoTime() - start;
+			}
+		}
+		world.setEntityAt(original, blockX, blockY);
+		snapshot.capture(world);
+		Logger.log(name + ": " + (total / 1000f / measuredFrames) + " us per frame");
+	}
+}
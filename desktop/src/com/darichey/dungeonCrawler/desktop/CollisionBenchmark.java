@@ -0,0 +1,93 @@
+package com.darichey.dungeonCrawler.desktop;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.lwjgl.LwjglApplication;
+import com.badlogic.gdx.backends.lwjgl.LwjglApplicationConfiguration;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector2;
+import com.darichey.dungeonCrawler.entity.base.DynamicEntity;
+import com.darichey.dungeonCrawler.entity.base.EntityStore;
+import com.darichey.dungeonCrawler.event.EventManager;
+import com.darichey.dungeonCrawler.handler.CollisionHandler;
+import com.darichey.dungeonCrawler.handler.MovementHandler;
+import com.darichey.dungeonCrawler.init.Entities;
+import com.darichey.dungeonCrawler.init.Items;
+import com.darichey.dungeonCrawler.util.Logger;
+import com.darichey.dungeonCrawler.world.World;
+import com.darichey.dungeonCrawler.world.chunk.Chunk;
+import com.darichey.dungeonCrawler.world.chunk.ChunkGenerator;
+
+/**
+ * Times {@link CollisionHandler#update(float)} with 1, 100 and 1000 dynamic entities spread over a 1024x1024 tile world
+ * of generated rooms, then exits. Entities get a random velocity every tick and are moved before the timed collision
+ * pass, so the sweeps have somewhere to go. Run it with "gradlew desktop:benchmarkCollision".
+ */
+public class CollisionBenchmark extends ApplicationAdapter {
+	private static final int[] entityCounts = {1, 100, 1000};
+	private static final int worldChunks = 1024 / Chunk.length;
+	private static final int warmupTicks = 120;
+	private static final int measuredTicks = 600;
+	private static final float tickTime = 1f / 60f;
+
+	public static void main(String[] arg) {
+		LwjglApplicationConfiguration config = new LwjglApplicationConfiguration();
+		config.width = 320;
+		config.height = 240;
+		config.title = "Collision benchmark";
+		new LwjglApplication(new CollisionBenchmark(), config);
+	}
+
+	@Override
+	public void create() {
+		Entities.init();
+		Items.init();
+		for (int entities : entityCounts) {
+			run(entities);
+		}
+		Gdx.app.exit();
+	}
+
+	private void run(int entityCount) {
+		World world = new World();
+		ChunkGenerator generator = new ChunkGenerator();
+		short[] tiles = new short[Chunk.length * Chunk.length];
+		for (int chunkY = 0; chunkY < worldChunks; chunkY++) {
+			for (int chunkX = 0; chunkX < worldChunks; chunkX++) {
+				if (world.getChunk(chunkX, chunkY) != null) continue;
+				generator.generate(chunkX, chunkY, tiles);
+				new Chunk(world, new Vector2(chunkX, chunkY)).setTiles(tiles);
+			}
+		}
+		world.removeDynamicEntity(world.player);
+
+		MathUtils.random.setSeed(entityCount);
+		DynamicEntity[] entities = new DynamicEntity[entityCount];
+		for (int i = 0; i < entityCount; i++) {
+			entities[i] = new BenchmarkEntity(world, MathUtils.random(1f, 1022f), MathUtils.random(1f, 1020f), 1, 2);
+		}
+		MovementHandler movementHandler = new MovementHandler(world);
+		CollisionHandler collisionHandler = new CollisionHandler(world);
+		EntityStore store = world.getEntityStore();
+
+		long total = 0;
+		for (int tick = 0; tick < warmupTicks + measuredTicks; tick++) {
+			// What World.update does for moving entities, without streaming chunks around the player
+			System.arraycopy(store.x, 0, store.prevX, 0, store.size);
+			System.arraycopy(store.y, 0, store.prevY, 0, store.size);
+			for (DynamicEntity entity : entities) {
+				entity.setVelocity(MathUtils.random(-10f, 10f), MathUtils.random(-10f, 10f));
+			}
+			movementHandler.update(tickTime);
+			long start = System.nanoTime();
+			collisionHandler.update(tickTime);
+			if (tick >= warmupTicks) {
+				total += System.nanoTime() - start;
+			}
+			EventManager.drain();
+		}
+		Logger.log(entityCount + " dynamic entities: " + (total / 1000f / measuredTicks) + " us per collision tick");
+
+		world.dispose();
+	}
+}
@@ -4,12 +4,16 @@ import com.badlogic.gdx.backends.lwjgl.LwjglApplication;
 import com.badlogic.gdx.backends.lwjgl.LwjglApplicationConfiguration;
 import com.darichey.dungeonCrawler.DungeonCrawler;
 
+import java.util.Arrays;
+import java.util.List;
+
 public class DesktopLauncher {
 	public static void main(String[] arg) {
 		LwjglApplicationConfiguration config = new LwjglApplicationConfiguration();
 		config.width = 1920;
 		config.height = 1017;
 		config.resizable = true;
-		new LwjglApplication(new DungeonCrawler(), config);
+		List<String> args = Arrays.asList(arg);
+		new LwjglApplication(new DungeonCrawler(args.contains("--threaded-simulation"), args.contains("--box2d-physics")), config);
 	}
 }
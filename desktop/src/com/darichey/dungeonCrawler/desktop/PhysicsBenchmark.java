@@ -0,0 +1,76 @@
+package com.darichey.dungeonCrawler.desktop;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.lwjgl.LwjglApplication;
+import com.badlogic.gdx.backends.lwjgl.LwjglApplicationConfiguration;
+import com.badlogic.gdx.math.MathUtils;
+import com.darichey.dungeonCrawler.entity.base.DynamicEntity;
+import com.darichey.dungeonCrawler.event.EventManager;
+import com.darichey.dungeonCrawler.init.Entities;
+import com.darichey.dungeonCrawler.init.Items;
+import com.darichey.dungeonCrawler.physics.Box2DPhysics;
+import com.darichey.dungeonCrawler.physics.BuiltInPhysics;
+import com.darichey.dungeonCrawler.physics.PhysicsBackend;
+import com.darichey.dungeonCrawler.util.Logger;
+import com.darichey.dungeonCrawler.world.World;
+
+/**
+ * Times one physics step of the built-in physics and Box2D with 10, 100 and 1000 bodies moving around the
+ * player's starting chunks, then exits. Run it with "gradlew desktop:benchmarkPhysics".
+ */
+public class PhysicsBenchmark extends ApplicationAdapter {
+	private static final int[] bodyCounts = {10, 100, 1000};
+	private static final int warmupTicks = 120;
+	private static final int measuredTicks = 600;
+	private static final float tickTime = 1f / 60f;
+
+	public static void main(String[] arg) {
+		LwjglApplicationConfiguration config = new LwjglApplicationConfiguration();
+		config.width = 320;
+		config.height = 240;
+		config.title = "Physics benchmark";
+		new LwjglApplication(new PhysicsBenchmark(), config);
+	}
+
+	@Override
+	public void create() {
+		Entities.init();
+		Items.init();
+		for (int bodies : bodyCounts) {
+			run(false, bodies);
+			run(true, bodies);
+		}
+		Gdx.app.exit();
+	}
+
+	private void run(boolean box2d, int bodies) {
+		World world = new World();
+		PhysicsBackend physics = box2d ? new Box2DPhysics(world) : new BuiltInPhysics(world);
+		// The same seed gives both backends the same bodies and velocities
+		MathUtils.random.setSeed(bodies);
+		DynamicEntity[] entities = new DynamicEntity[bodies];
+		for (int i = 0; i < bodies; i++) {
+			entities[i] = new BenchmarkEntity(world, MathUtils.random(-24, 48) + 0.5f, MathUtils.random(-24, 48) + 0.5f, 1, 1);
+		}
+
+		long total = 0;
+		for (int tick = 0; tick < warmupTicks + measuredTicks; tick++) {
+			world.update();
+			for (DynamicEntity entity : entities) {
+				entity.setVelocity(MathUtils.random(-10f, 10f), MathUtils.random(-10f, 10f));
+			}
+			long start = System.nanoTime();
+			physics.step(tickTime);
+			if (tick >= warmupTicks) {
+				total += System.nanoTime() - start;
+			}
+			EventManager.drain();
+		}
+		Logger.log((box2d ? "Box2D" : "Built-in") + " physics, " + bodies + " bodies: "
+				+ (total / 1000 / measuredTicks) + " us per step");
+
+		physics.dispose();
+		world.dispose();
+	}
+}
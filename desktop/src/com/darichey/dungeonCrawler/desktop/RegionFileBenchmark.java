@@ -0,0 +1,91 @@
+package com.darichey.dungeonCrawler.desktop;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.lwjgl.LwjglApplication;
+import com.badlogic.gdx.backends.lwjgl.LwjglApplicationConfiguration;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector2;
+import com.darichey.dungeonCrawler.init.Entities;
+import com.darichey.dungeonCrawler.init.Items;
+import com.darichey.dungeonCrawler.init.register.EntityRegistry;
+import com.darichey.dungeonCrawler.util.Logger;
+import com.darichey.dungeonCrawler.world.World;
+import com.darichey.dungeonCrawler.world.chunk.Chunk;
+import com.darichey.dungeonCrawler.world.chunk.ChunkGenerator;
+import com.darichey.dungeonCrawler.world.chunk.RegionFileStorage;
+
+/**
+ * Times saving and loading 64x64 chunks, four regions, through {@link RegionFileStorage} in a temporary directory,
+ * then exits. A third of the chunks are generated rooms, a third random stone at 25% density and a third empty. Each
+ * pass saves every chunk and flushes, then loads every chunk through a new storage. Run it with
+ * "gradlew desktop:benchmarkRegionFiles".
+ */
+public class RegionFileBenchmark extends ApplicationAdapter {
+	private static final int side = 2 * RegionFileStorage.regionLength;
+	private static final int passes = 5;
+
+	public static void main(String[] arg) {
+		LwjglApplicationConfiguration config = new LwjglApplicationConfiguration();
+		config.width = 320;
+		config.height = 240;
+		config.title = "Region file benchmark";
+		new LwjglApplication(new RegionFileBenchmark(), config);
+	}
+
+	@Override
+	public void create() {
+		Entities.init();
+		Items.init();
+		World world = new World();
+		short stone = (short) EntityRegistry.getIDForEntity(Entities.stone).intValue();
+		ChunkGenerator generator = new ChunkGenerator();
+		MathUtils.random.setSeed(0);
+
+		// Far from the player so none of them are already loaded
+		int offset = 1000;
+		Chunk[] chunks = new Chunk[side * side];
+		short[] tiles = new short[Chunk.length * Chunk.length];
+		for (int i = 0; i < chunks.length; i++) {
+			int chunkX = offset + i % side;
+			int chunkY = offset + i / side;
+			if (i % 3 == 0) {
+				generator.generate(chunkX, chunkY, tiles);
+			} else {
+				for (int j = 0; j < tiles.length; j++) {
+					tiles[j] = i % 3 == 1 && MathUtils.randomBoolean(0.25f) ? stone : 0;
+				}
+			}
+			chunks[i] = new Chunk(world, new Vector2(chunkX, chunkY));
+			chunks[i].setTiles(tiles);
+		}
+
+		FileHandle directory = FileHandle.tempDirectory("regionBenchmark");
+		for (int pass = 1; pass <= passes; pass++) {
+			RegionFileStorage storage = new RegionFileStorage(directory);
+			long start = System.nanoTime();
+			for (Chunk chunk : chunks) {
+				storage.save(chunk);
+			}
+			storage.flush();
+			long saveTime = System.nanoTime() - start;
+			storage.dispose();
+
+			storage = new RegionFileStorage(directory);
+			start = System.nanoTime();
+			for (Chunk chunk : chunks) {
+				storage.load(chunk.getX(), chunk.getY(), tiles);
+			}
+			long loadTime = System.nanoTime() - start;
+			storage.dispose();
+
+			Logger.log("Pass " + pass + ": save " + (saveTime / chunks.length / 1000f) + " us per chunk, load "
+					+ (loadTime / chunks.length / 1000f) + " us per chunk");
+		}
+
+		directory.deleteDirectory();
+		world.dispose();
+		Gdx.app.exit();
+	}
+}
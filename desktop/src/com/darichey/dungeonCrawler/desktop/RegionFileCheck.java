@@ -0,0 +1,164 @@
+package com.darichey.dungeonCrawler.desktop;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.lwjgl.LwjglApplication;
+import com.badlogic.gdx.backends.lwjgl.LwjglApplicationConfiguration;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.darichey.dungeonCrawler.entity.block.BlockBase;
+import com.darichey.dungeonCrawler.init.Entities;
+import com.darichey.dungeonCrawler.init.Items;
+import com.darichey.dungeonCrawler.init.register.EntityRegistry;
+import com.darichey.dungeonCrawler.util.Logger;
+import com.darichey.dungeonCrawler.world.World;
+import com.darichey.dungeonCrawler.world.chunk.Chunk;
+import com.darichey.dungeonCrawler.world.chunk.ChunkGenerator;
+import com.darichey.dungeonCrawler.world.chunk.RegionFileStorage;
+
+import java.util.Arrays;
+
+/**
+ * Saves chunks covering every encoding of {@link RegionFileStorage} to a temporary directory, reads them back through a
+ * new storage and checks every tile against the {@link EntityRegistry} ID it was saved with, then exits. Throws if any
+ * chunk comes back different. Run it with "gradlew desktop:checkRegionFiles".
+ * <p>
+ * Extra blocks are registered before the game's entities so palettes can hold up to 8 IDs, packed at 1 to 3 bits.
+ */
+public class RegionFileCheck extends ApplicationAdapter {
+	private static final int extraBlocks = 6;
+	private static final int tileCount = Chunk.length * Chunk.length;
+
+	private World world;
+	private Array<Chunk> chunks = new Array<Chunk>();
+	private Array<short[]> expected = new Array<short[]>();
+	/** Spread over regions on both sides of 0 so negative region and slot positions are covered **/
+	private int nextChunkX = -2 * RegionFileStorage.regionLength - 3;
+
+	public static void main(String[] arg) {
+		LwjglApplicationConfiguration config = new LwjglApplicationConfiguration();
+		config.width = 320;
+		config.height = 240;
+		config.title = "Region file check";
+		new LwjglApplication(new RegionFileCheck(), config);
+	}
+
+	@Override
+	public void create() {
+		BlockBase[] blocks = new BlockBase[extraBlocks];
+		for (int i = 0; i < extraBlocks; i++) {
+			blocks[i] = new BlockBase() {
+			};
+			blocks[i].name = "regionCheck" + i;
+			EntityRegistry.register(blocks[i]);
+		}
+		Entities.init();
+		Items.init();
+		world = new World();
+		MathUtils.random.setSeed(0);
+
+		// The empty tile, the extra blocks and stone
+		short stone = (short) EntityRegistry.getIDForEntity(Entities.stone).intValue();
+		short[] ids = new short[extraBlocks + 2];
+		for (int i = 0; i < extraBlocks; i++) {
+			ids[i + 1] = (short) EntityRegistry.getIDForEntity(blocks[i]).intValue();
+		}
+		ids[extraBlocks + 1] = stone;
+
+		// A single entry palette stores no indices
+		add(fill(new short[tileCount], (short) 0));
+		add(fill(new short[tileCount], stone));
+		// Few runs are run-length encoded
+		short[] half = new short[tileCount];
+		Arrays.fill(half, 0, tileCount / 2, stone);
+		add(half);
+		add(stripes(ids, 3));
+		add(stripes(ids, 8));
+		// Many runs are bit packed, 1, 2 and 3 bits for palettes of 2, 3 to 4 and 5 to 8 IDs
+		short[] generated = new short[tileCount];
+		new ChunkGenerator().generate(0, 0, generated);
+		add(generated);
+		for (int paletteSize = 2; paletteSize <= ids.length; paletteSize++) {
+			add(random(ids, paletteSize));
+		}
+
+		FileHandle directory = FileHandle.tempDirectory("regionCheck");
+		RegionFileStorage storage = new RegionFileStorage(directory);
+		for (Chunk chunk : chunks) {
+			storage.save(chunk);
+		}
+		// Replacing a save with one of another encoding must not leave anything of the old one
+		replace(3, random(ids, ids.length));
+		storage.save(chunks.get(3));
+		replace(7, stripes(ids, 3));
+		storage.save(chunks.get(7));
+		storage.dispose();
+
+		storage = new RegionFileStorage(directory);
+		short[] tiles = new short[tileCount];
+		for (int i = 0; i < chunks.size; i++) {
+			Chunk chunk = chunks.get(i);
+			if (!storage.load(chunk.getX(), chunk.getY(), tiles)) {
+				throw new GdxRuntimeException("Chunk " + chunk.getX() + ", " + chunk.getY() + " was not saved");
+			}
+			if (!Arrays.equals(tiles, expected.get(i))) {
+				throw new GdxRuntimeException("Chunk " + chunk.getX() + ", " + chunk.getY() + " loaded as "
+						+ Arrays.toString(tiles) + ", saved as " + Arrays.toString(expected.get(i)));
+			}
+		}
+		if (storage.load(chunks.first().getX() + 1, chunks.first().getY(), tiles)) {
+			throw new GdxRuntimeException("A slot that was never saved loaded");
+		}
+		if (storage.load(0, 100 * RegionFileStorage.regionLength, tiles)) {
+			throw new GdxRuntimeException("A region that does not exist loaded");
+		}
+		storage.dispose();
+		directory.deleteDirectory();
+		world.dispose();
+		Logger.log(chunks.size + " chunks saved and loaded back unchanged");
+		Gdx.app.exit();
+	}
+
+	private void add(short[] tiles) {
+		Chunk chunk = new Chunk(world, new Vector2(nextChunkX, -RegionFileStorage.regionLength));
+		nextChunkX += RegionFileStorage.regionLength / 2 + 1;
+		chunk.setTiles(tiles);
+		chunks.add(chunk);
+		expected.add(tiles.clone());
+	}
+
+	private void replace(int index, short[] tiles) {
+		chunks.get(index).setTiles(tiles);
+		expected.set(index, tiles.clone());
+	}
+
+	private static short[] fill(short[] tiles, short id) {
+		Arrays.fill(tiles, id);
+		return tiles;
+	}
+
+	/**
+	 * @return Tiles with each row set to one of the first paletteSize IDs in turn
+	 */
+	private static short[] stripes(short[] ids, int paletteSize) {
+		short[] tiles = new short[tileCount];
+		for (int i = 0; i < tileCount; i++) {
+			tiles[i] = ids[(i / Chunk.length) % paletteSize];
+		}
+		return tiles;
+	}
+
+	/**
+	 * @return Tiles set to random IDs out of the first paletteSize IDs, with every one of them used
+	 */
+	private static short[] random(short[] ids, int paletteSize) {
+		short[] tiles = new short[tileCount];
+		for (int i = 0; i < tileCount; i++) {
+			tiles[i] = ids[i < paletteSize ? i : MathUtils.random(paletteSize - 1)];
+		}
+		return tiles;
+	}
+}
@@ -0,0 +1,52 @@
+package com.darichey.dungeonCrawler.desktop;
+
+import com.darichey.dungeonCrawler.world.chunk.Chunk;
+import com.darichey.dungeonCrawler.world.chunk.EntityTileMap;
+
+/**
+ * Measures the heap taken by the tile maps of a 4096x4096 tile world, 65,536 chunks, by allocating them and comparing
+ * the used heap after garbage collection. The int[][] per chunk EntityTileMap used to keep is measured alongside for
+ * comparison. Run it with "gradlew desktop:benchmarkTileMapMemory".
+ */
+public class TileMapMemoryBenchmark {
+	private static final int chunkCount = (4096 / Chunk.length) * (4096 / Chunk.length);
+
+	public static void main(String[] arg) {
+		long before = getUsedMemory();
+		int[][][] arrays = new int[chunkCount][][];
+		for (int i = 0; i < chunkCount; i++) {
+			arrays[i] = new int[Chunk.length][Chunk.length];
+		}
+		report("int[" + Chunk.length + "][" + Chunk.length + "]", getUsedMemory() - before);
+		// Keeps the arrays reachable until they were measured
+		if (arrays[chunkCount - 1] == null) throw new IllegalStateException();
+		arrays = null;
+
+		before = getUsedMemory();
+		EntityTileMap[] maps = new EntityTileMap[chunkCount];
+		for (int i = 0; i < chunkCount; i++) {
+			maps[i] = new EntityTileMap(Chunk.length, Chunk.length);
+		}
+		report("EntityTileMap", getUsedMemory() - before);
+		// Keeps the maps reachable until they were measured
+		if (maps[chunkCount - 1] == null) throw new IllegalStateException();
+	}
+
+	private static void report(String layout, long bytes) {
+		System.out.println(layout + ": " + (bytes / chunkCount) + " bytes per chunk, "
+				+ (bytes / (1024 * 1024)) + " MiB for " + chunkCount + " chunks");
+	}
+
+	private static long getUsedMemory() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 5; i++) {
+			System.gc();
+			try {
+				Thread.sleep(50);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}